@@ -0,0 +1,160 @@
+package com.coffeebeat.config;
+
+import com.coffeebeat.model.Booking;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the booking collection's indexes at startup
+ *
+ * Query indexes are a declared set, one per repository query shape, with
+ * the set version in each index name. Bumping {@link #QUERY_INDEX_VERSION}
+ * after changing the set builds the new indexes and drops the ones left
+ * over from earlier versions, so the collection always carries exactly
+ * the declared set.
+ *
+ * The unique partial index on (tableNumber, bookingDate, slot) over active
+ * statuses makes double booking impossible at the database level, so the
+ * booking service can skip its availability pre-check and map duplicate key
+ * errors to a conflict instead. Its partial filter is the repository's
+ * active-status list, so it also serves the slot lookups. If the index
+ * cannot be built (for example because existing data already contains
+ * double bookings) the error is logged and the service keeps using the
+ * pre-check, whose slot lookups then go through the tableNumber + timeSlot
+ * index.
+ */
+@Component
+public class BookingIndexInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingIndexInitializer.class);
+
+    public static final String UNIQUE_ACTIVE_SLOT_INDEX = "uniq_active_table_date_slot";
+
+    public static final int QUERY_INDEX_VERSION = 2;
+    private static final String QUERY_INDEX_PREFIX = "bookings_v";
+
+    // Indexes from before the declared set, now covered by a compound index
+    private static final Set<String> RETIRED_INDEXES = Set.of("userId");
+
+    // Same set as the repository's active-booking queries
+    private static final List<String> ACTIVE_STATUSES = List.of("BOOKED", "CONFIRMED", "RESERVED", "OCCUPIED");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private volatile boolean slotUniquenessEnforced;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        createQueryIndexes();
+        createSlotUniquenessIndex();
+    }
+
+    /**
+     * Index set for the booking repository's query shapes
+     */
+    static List<Index> queryIndexes() {
+        // Slot checks (tableNumber + bookingDate + slot, active statuses) use the unique partial index
+        return List.of(
+                // Per-table lookups and conflicts: tableNumber + timeSlot range
+                new Index()
+                        .on("tableNumber", Sort.Direction.ASC)
+                        .on("timeSlot", Sort.Direction.ASC)
+                        .on("status", Sort.Direction.ASC)
+                        .named(queryIndexName("table_time_status")),
+                // A user's bookings, upcoming and past: userId + timeSlot range
+                new Index()
+                        .on("userId", Sort.Direction.ASC)
+                        .on("timeSlot", Sort.Direction.ASC)
+                        .on("status", Sort.Direction.ASC)
+                        .named(queryIndexName("user_time_status")),
+                // Day / range views, availability loads and reminders: timeSlot range
+                new Index()
+                        .on("timeSlot", Sort.Direction.ASC)
+                        .on("status", Sort.Direction.ASC)
+                        .named(queryIndexName("time_status")),
+                // Lookups and counts by status alone
+                new Index()
+                        .on("status", Sort.Direction.ASC)
+                        .on("timeSlot", Sort.Direction.ASC)
+                        .named(queryIndexName("status_time")));
+    }
+
+    private void createQueryIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Booking.class);
+        List<Index> declared = queryIndexes();
+        Set<String> declaredNames = declared.stream()
+                .map(index -> (String) index.getIndexOptions().get("name"))
+                .collect(Collectors.toSet());
+
+        int created = 0;
+        for (Index index : declared) {
+            try {
+                indexOps.ensureIndex(index);
+                created++;
+            } catch (Exception e) {
+                logger.error("Could not create booking index {}: {}",
+                        index.getIndexOptions().get("name"), e.getMessage());
+            }
+        }
+
+        try {
+            for (IndexInfo info : indexOps.getIndexInfo()) {
+                String name = info.getName();
+                boolean stale = name.startsWith(QUERY_INDEX_PREFIX) && !declaredNames.contains(name);
+                if (stale || RETIRED_INDEXES.contains(name)) {
+                    indexOps.dropIndex(name);
+                    logger.info("Dropped booking index {}", name);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Could not clean up old booking indexes: {}", e.getMessage());
+        }
+
+        logger.info("Booking query index set v{}: {} of {} indexes in place",
+                QUERY_INDEX_VERSION, created, declared.size());
+    }
+
+    private void createSlotUniquenessIndex() {
+        try {
+            mongoTemplate.indexOps(Booking.class).ensureIndex(new Index()
+                    .on("tableNumber", Sort.Direction.ASC)
+                    .on("bookingDate", Sort.Direction.ASC)
+                    .on("slot", Sort.Direction.ASC)
+                    .named(UNIQUE_ACTIVE_SLOT_INDEX)
+                    .unique()
+                    .partial(PartialIndexFilter.of(Criteria.where("status").in(ACTIVE_STATUSES))));
+            slotUniquenessEnforced = true;
+            logger.info("Booking index {} is in place", UNIQUE_ACTIVE_SLOT_INDEX);
+        } catch (Exception e) {
+            logger.error("Could not create booking index {}, falling back to availability pre-checks: {}",
+                    UNIQUE_ACTIVE_SLOT_INDEX, e.getMessage());
+        }
+    }
+
+    private static String queryIndexName(String shape) {
+        return QUERY_INDEX_PREFIX + QUERY_INDEX_VERSION + "_" + shape;
+    }
+
+    /**
+     * Whether the database rejects a second active booking for the same table, date and slot
+     */
+    public boolean isSlotUniquenessEnforced() {
+        return slotUniquenessEnforced;
+    }
+}
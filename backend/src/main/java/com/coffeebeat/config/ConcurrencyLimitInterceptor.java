@@ -0,0 +1,65 @@
+package com.coffeebeat.config;
+
+import com.coffeebeat.service.AdaptiveConcurrencyLimiter;
+import com.coffeebeat.service.ConcurrencyLimits;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+
+/**
+ * Sheds write requests beyond the adaptive concurrency limit
+ *
+ * A request that gets no slot is answered 503 with Retry-After right away,
+ * before any service code runs; one that does releases its slot on
+ * completion, reporting its latency back to the limiter.
+ */
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitInterceptor.class);
+
+    private static final String LIMITER_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".limiter";
+    private static final String START_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".start";
+
+    private final ConcurrencyLimits concurrencyLimits;
+
+    public ConcurrencyLimitInterceptor(ConcurrencyLimits concurrencyLimits) {
+        this.concurrencyLimits = concurrencyLimits;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimits.limiterFor(request);
+        if (limiter == null) {
+            return true;
+        }
+        if (!limiter.tryAcquire()) {
+            logger.warn("Shedding {} {}: concurrency limit {} reached",
+                    request.getMethod(), request.getRequestURI(), limiter.getLimit());
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", String.valueOf(concurrencyLimits.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Server is busy, please retry shortly\"}");
+            return false;
+        }
+        request.setAttribute(LIMITER_ATTRIBUTE, limiter);
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        Object limiter = request.getAttribute(LIMITER_ATTRIBUTE);
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (limiter instanceof AdaptiveConcurrencyLimiter && start instanceof Long) {
+            request.removeAttribute(LIMITER_ATTRIBUTE);
+            ((AdaptiveConcurrencyLimiter) limiter).release(System.nanoTime() - (Long) start);
+        }
+    }
+}
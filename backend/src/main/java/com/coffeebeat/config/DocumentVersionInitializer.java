@@ -0,0 +1,50 @@
+package com.coffeebeat.config;
+
+import com.coffeebeat.model.Booking;
+import com.coffeebeat.model.Order;
+import com.coffeebeat.model.Product;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Gives documents written before optimistic locking a version
+ *
+ * An entity loaded without a version looks new to Spring Data, so saving
+ * it back would be an insert and fail on the duplicate id. Versioned
+ * collections are backfilled with version 0 before the web server starts
+ * taking requests.
+ */
+@Component
+public class DocumentVersionInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentVersionInitializer.class);
+
+    private static final List<Class<?>> VERSIONED = List.of(Order.class, Product.class, Booking.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    public void backfillVersions() {
+        for (Class<?> type : VERSIONED) {
+            try {
+                long updated = mongoTemplate.updateMulti(new Query(Criteria.where("version").exists(false)),
+                        new Update().set("version", 0L), type).getModifiedCount();
+                if (updated > 0) {
+                    logger.info("Initialized version on {} {} documents", updated, mongoTemplate.getCollectionName(type));
+                }
+            } catch (Exception e) {
+                logger.error("Could not initialize versions on {}: {}", mongoTemplate.getCollectionName(type), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.coffeebeat.config;
+
+import com.coffeebeat.service.ImageDeliveryService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.resource.ResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.util.List;
+
+/**
+ * Resource resolver that serves upload-directory files from the hot image cache
+ *
+ * Sits in front of the default PathResourceResolver in the upload resource
+ * handler chain; the path resolver still does location and traversal checks.
+ */
+public class HotImageResourceResolver implements ResourceResolver {
+
+    private final ImageDeliveryService imageDeliveryService;
+
+    public HotImageResourceResolver(ImageDeliveryService imageDeliveryService) {
+        this.imageDeliveryService = imageDeliveryService;
+    }
+
+    @Override
+    public Resource resolveResource(HttpServletRequest request, String requestPath,
+            List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        return resource != null ? imageDeliveryService.cached(resource) : null;
+    }
+
+    @Override
+    public String resolveUrlPath(String resourcePath, List<? extends Resource> locations,
+            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourcePath, locations);
+    }
+}
@@ -2,6 +2,11 @@ package com.coffeebeat.config;
 
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoException;
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadPreference;
+import com.mongodb.TransactionOptions;
+import com.mongodb.WriteConcern;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import org.slf4j.Logger;
@@ -9,11 +14,17 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.ApplicationEventMulticaster;
+import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.data.mongodb.MongoTransactionManager;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 @EnableMongoRepositories(basePackages = "com.coffeebeat.repository")
 @EnableMongoAuditing
@@ -21,18 +32,27 @@ public class MongoDBConfig extends AbstractMongoClientConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(MongoDBConfig.class);
 
+    private static final int MAX_COMMIT_ATTEMPTS = 3;
+
     @Value("${spring.data.mongodb.uri}")
     private String mongoUri;
 
     @Value("${spring.data.mongodb.database}")
     private String databaseName;
 
+    @Value("${app.analytics.mongo.max-pool-size:4}")
+    private int analyticsMaxPoolSize;
+
+    @Value("${app.analytics.mongo.max-wait-ms:2000}")
+    private long analyticsMaxWaitMillis;
+
     @Override
     protected String getDatabaseName() {
         return databaseName;
     }
 
     @Bean
+    @Primary
     @Override
     public MongoClient mongoClient() {
         try {
@@ -56,10 +76,81 @@ public class MongoDBConfig extends AbstractMongoClientConfiguration {
     }
 
     @Bean
+    @Primary
     public MongoTemplate mongoTemplate() {
         return new MongoTemplate(mongoClient(), getDatabaseName());
     }
 
+    /**
+     * Separate, small connection pool for analytics and statistics
+     *
+     * Reports run on their own client, so however many are running they
+     * cannot take the connections order placement and bookings need. Waiting
+     * for one of the few analytics connections is bounded too.
+     */
+    @Bean(destroyMethod = "close")
+    public MongoClient analyticsMongoClient() {
+        MongoClientSettings settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(mongoUri))
+                .applyToConnectionPoolSettings(pool -> pool
+                        .maxSize(analyticsMaxPoolSize)
+                        .minSize(0)
+                        .maxWaitTime(analyticsMaxWaitMillis, TimeUnit.MILLISECONDS))
+                .build();
+        return MongoClients.create(settings);
+    }
+
+    @Bean
+    public MongoTemplate analyticsMongoTemplate() {
+        return new MongoTemplate(analyticsMongoClient(), getDatabaseName());
+    }
+
+    /**
+     * Delivers Mongo save and delete events of a transaction only once it has committed
+     *
+     * Static so the context can create it before this configuration.
+     */
+    @Bean(name = AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME)
+    public static ApplicationEventMulticaster applicationEventMulticaster() {
+        return new TransactionAwareEventMulticaster();
+    }
+
+    /**
+     * Transaction manager for multi-document order placement
+     *
+     * Built on the template's own database factory so template and repository
+     * operations join its sessions, which are causally consistent. Reads see
+     * majority-committed data and commits wait for a majority. A commit whose
+     * outcome is unknown (e.g. a network error) is retried, which is safe as
+     * the server applies a transaction's commit at most once.
+     */
+    @Bean
+    public MongoTransactionManager transactionManager() {
+        TransactionOptions options = TransactionOptions.builder()
+                .readConcern(ReadConcern.MAJORITY)
+                .writeConcern(WriteConcern.MAJORITY)
+                .readPreference(ReadPreference.primary())
+                .build();
+
+        return new MongoTransactionManager(mongoTemplate().getMongoDatabaseFactory(), options) {
+            @Override
+            protected void doCommit(MongoTransactionObject transactionObject) throws Exception {
+                for (int attempt = 1; ; attempt++) {
+                    try {
+                        transactionObject.commitTransaction();
+                        return;
+                    } catch (MongoException e) {
+                        if (attempt >= MAX_COMMIT_ATTEMPTS
+                                || !e.hasErrorLabel(MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL)) {
+                            throw e;
+                        }
+                        MongoDBConfig.logger.warn("Transaction commit result unknown (attempt {}), retrying commit", attempt);
+                    }
+                }
+            }
+        };
+    }
+
     @Override
     protected boolean autoIndexCreation() {
         return true;
@@ -2,6 +2,7 @@ package com.coffeebeat.config;
 
 import com.coffeebeat.security.JwtAuthenticationEntryPoint;
 import com.coffeebeat.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -76,6 +77,9 @@ public class SecurityConfig {
                                 .sessionManagement(session -> session
                                                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                                 .authorizeHttpRequests(authz -> authz
+                                                // Async completion of a request already authorized on its first dispatch
+                                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                                                 // Public endpoints - allow without authentication
                                                 .requestMatchers(
                                                                "/api/auth/login",
@@ -103,6 +107,8 @@ public class SecurityConfig {
                                                 .requestMatchers("/api/chef/**").hasRole("CHEF")
                                                 .requestMatchers("/api/waiter/**").hasRole("WAITER")
                                                 .requestMatchers("/api/customer/**").hasRole("CUSTOMER")
+                                                .requestMatchers("/api/bookings/search").hasAnyRole("WAITER", "ADMIN")
+                                                .requestMatchers("/api/bookings/tables/live").hasAnyRole("WAITER", "ADMIN")
 
                                                 // All other endpoints require authentication
                                                 .anyRequest().authenticated()
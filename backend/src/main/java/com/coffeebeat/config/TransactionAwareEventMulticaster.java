@@ -0,0 +1,43 @@
+package com.coffeebeat.config;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Application event multicaster that holds back Mongo save and delete
+ * events raised inside a transaction until the transaction commits
+ *
+ * The in-memory views (production board, table occupancy, kitchen
+ * assignment, ...) apply AfterSaveEvent and AfterDeleteEvent as soon as
+ * they arrive. A write made in a transaction that later aborts, or that is
+ * retried after a transient error, must not reach them, so such events are
+ * delivered in order after the commit and dropped on rollback. Events
+ * outside a transaction are delivered right away as before.
+ */
+public class TransactionAwareEventMulticaster extends SimpleApplicationEventMulticaster {
+
+    @Override
+    public void multicastEvent(ApplicationEvent event, ResolvableType eventType) {
+        if (!(event instanceof AfterSaveEvent || event instanceof AfterDeleteEvent)
+                || !TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            super.multicastEvent(event, eventType);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deliver(event, eventType);
+            }
+        });
+    }
+
+    private void deliver(ApplicationEvent event, ResolvableType eventType) {
+        super.multicastEvent(event, eventType);
+    }
+}
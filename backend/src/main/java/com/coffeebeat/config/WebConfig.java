@@ -1,7 +1,11 @@
 package com.coffeebeat.config;
 
+import com.coffeebeat.service.ConcurrencyLimits;
+import com.coffeebeat.service.ImageDeliveryService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
@@ -18,18 +22,42 @@ public class WebConfig implements WebMvcConfigurer {
     @Value("${app.upload.dir:uploads}")
     private String uploadDir;
 
+    @Autowired
+    private ImageDeliveryService imageDeliveryService;
+
+    @Autowired
+    private ConcurrencyLimits concurrencyLimits;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Write endpoints shed load past their adaptive concurrency limit
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(concurrencyLimits))
+                .addPathPatterns("/api/orders/**", "/api/bookings/**", "/api/auth/**");
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Map /api/uploads/images/** to the uploads directory
         Path uploadPath = Paths.get(uploadDir);
         String uploadAbsolutePath = uploadPath.toFile().getAbsolutePath();
 
+        // Uploaded files are write-once, so they get immutable caching plus
+        // ETag / Last-Modified validators; Range requests are handled by the handler
+        // and small hot files come from the off-heap image cache
         registry.addResourceHandler("/api/uploads/images/**")
-                .addResourceLocations("file:" + uploadAbsolutePath + "/");
+                .addResourceLocations("file:" + uploadAbsolutePath + "/")
+                .setCacheControl(ImageDeliveryService.IMMUTABLE_CACHE)
+                .setEtagGenerator(imageDeliveryService::etag)
+                .resourceChain(false)
+                .addResolver(new HotImageResourceResolver(imageDeliveryService));
 
         // Also map /uploads/** just in case
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + uploadAbsolutePath + "/");
+                .addResourceLocations("file:" + uploadAbsolutePath + "/")
+                .setCacheControl(ImageDeliveryService.IMMUTABLE_CACHE)
+                .setEtagGenerator(imageDeliveryService::etag)
+                .resourceChain(false)
+                .addResolver(new HotImageResourceResolver(imageDeliveryService));
     }
 
     @Override
@@ -2,6 +2,15 @@ package com.coffeebeat.controller;
 
 import com.coffeebeat.model.User;
 import com.coffeebeat.service.AdminService;
+import com.coffeebeat.service.AnalyticsBulkhead;
+import com.coffeebeat.service.BookingReminderScheduler;
+import com.coffeebeat.service.ConcurrencyLimits;
+import com.coffeebeat.service.HotImageCache;
+import com.coffeebeat.service.IdempotencyService;
+import com.coffeebeat.service.ImageGarbageCollector;
+import com.coffeebeat.service.KitchenAssignmentScheduler;
+import com.coffeebeat.service.OptimisticRetry;
+import com.coffeebeat.service.OrderIntakeService;
 import com.coffeebeat.service.OrderService;
 import com.coffeebeat.service.ProductService;
 import org.slf4j.Logger;
@@ -13,6 +22,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -29,46 +39,75 @@ public class AdminController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private HotImageCache hotImageCache;
+
+    @Autowired
+    private ImageGarbageCollector imageGarbageCollector;
+
+    @Autowired
+    private BookingReminderScheduler bookingReminderScheduler;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ConcurrencyLimits concurrencyLimits;
+
+    @Autowired
+    private AnalyticsBulkhead analyticsBulkhead;
+
+    @Autowired
+    private KitchenAssignmentScheduler kitchenAssignmentScheduler;
+
     /**
      * Get dashboard statistics
      */
     @GetMapping("/dashboard")
-    public ResponseEntity<Map<String, Object>> getDashboardStats() {
-        try {
-            Map<String, Object> stats = new HashMap<>();
-
-            // Get order stats
-            Map<String, Object> orderStats = orderService.getOrderStats();
-            stats.put("orders", orderStats);
-
-            // Get product stats
-            Map<String, Object> productStats = productService.getProductStats();
-            stats.put("products", productStats);
-
-            // Get user stats
-            List<User> allUsers = adminService.getAllUsers(null, null);
-            long totalUsers = allUsers.size();
-            long activeUsers = allUsers.stream().filter(User::isActive).count();
-            long customerCount = allUsers.stream().filter(u -> "ROLE_CUSTOMER".equals(u.getRole())).count();
-            long chefCount = allUsers.stream().filter(u -> "ROLE_CHEF".equals(u.getRole())).count();
-            long waiterCount = allUsers.stream().filter(u -> "ROLE_WAITER".equals(u.getRole())).count();
-            long adminCount = allUsers.stream().filter(u -> "ROLE_ADMIN".equals(u.getRole())).count();
-
-            Map<String, Object> userStats = new HashMap<>();
-            userStats.put("totalUsers", totalUsers);
-            userStats.put("activeUsers", activeUsers);
-            userStats.put("customers", customerCount);
-            userStats.put("chefs", chefCount);
-            userStats.put("waiters", waiterCount);
-            userStats.put("admins", adminCount);
-            stats.put("users", userStats);
-
-            logger.info("Dashboard stats fetched successfully");
-            return ResponseEntity.ok(stats);
-        } catch (Exception e) {
-            logger.error("Failed to get dashboard stats: {}", e.getMessage(), e);
-            return ResponseEntity.badRequest().build();
-        }
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getDashboardStats() {
+        return analyticsBulkhead.submit(() -> {
+            try {
+                Map<String, Object> stats = new HashMap<>();
+
+                // Get order stats
+                Map<String, Object> orderStats = orderService.getOrderStats();
+                stats.put("orders", orderStats);
+
+                // Get product stats
+                Map<String, Object> productStats = productService.getProductStats();
+                stats.put("products", productStats);
+
+                // Get user stats
+                List<User> allUsers = adminService.getAllUsers(null, null);
+                long totalUsers = allUsers.size();
+                long activeUsers = allUsers.stream().filter(User::isActive).count();
+                long customerCount = allUsers.stream().filter(u -> "ROLE_CUSTOMER".equals(u.getRole())).count();
+                long chefCount = allUsers.stream().filter(u -> "ROLE_CHEF".equals(u.getRole())).count();
+                long waiterCount = allUsers.stream().filter(u -> "ROLE_WAITER".equals(u.getRole())).count();
+                long adminCount = allUsers.stream().filter(u -> "ROLE_ADMIN".equals(u.getRole())).count();
+
+                Map<String, Object> userStats = new HashMap<>();
+                userStats.put("totalUsers", totalUsers);
+                userStats.put("activeUsers", activeUsers);
+                userStats.put("customers", customerCount);
+                userStats.put("chefs", chefCount);
+                userStats.put("waiters", waiterCount);
+                userStats.put("admins", adminCount);
+                stats.put("users", userStats);
+
+                logger.info("Dashboard stats fetched successfully");
+                return ResponseEntity.ok(stats);
+            } catch (Exception e) {
+                logger.error("Failed to get dashboard stats: {}", e.getMessage(), e);
+                return ResponseEntity.badRequest().build();
+            }
+        });
     }
 
     /**
@@ -159,86 +198,201 @@ public class AdminController {
      * Get system statistics
      */
     @GetMapping("/stats")
-    public ResponseEntity<Map<String, Object>> getSystemStats() {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getSystemStats() {
+        return analyticsBulkhead.submit(() -> {
+            try {
+                Map<String, Object> stats = adminService.getSystemStats();
+                return ResponseEntity.ok(stats);
+            } catch (Exception e) {
+                logger.error("Failed to get system stats: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        });
+    }
+
+    /**
+     * Get hot image cache statistics
+     */
+    @GetMapping("/image-cache/stats")
+    public ResponseEntity<Map<String, Object>> getImageCacheStats() {
         try {
-            Map<String, Object> stats = adminService.getSystemStats();
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok(hotImageCache.getStats());
         } catch (Exception e) {
-            logger.error("Failed to get system stats: {}", e.getMessage());
+            logger.error("Failed to get image cache stats: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
         }
     }
 
     /**
-     * Get today's analytics
+     * Get booking reminder scheduler statistics
      */
-    @GetMapping("/analytics/today")
-    public ResponseEntity<Map<String, Object>> getTodayAnalytics() {
+    @GetMapping("/reminders/stats")
+    public ResponseEntity<Map<String, Object>> getReminderStats() {
+        return ResponseEntity.ok(bookingReminderScheduler.getStats());
+    }
+
+    /**
+     * Get optimistic locking conflict statistics per operation
+     */
+    @GetMapping("/concurrency/stats")
+    public ResponseEntity<Map<String, Object>> getConcurrencyStats() {
+        return ResponseEntity.ok(optimisticRetry.getStats());
+    }
+
+    /**
+     * Get order placement mode and transaction statistics
+     */
+    @GetMapping("/orders/placement/stats")
+    public ResponseEntity<Map<String, Object>> getOrderPlacementStats() {
+        return ResponseEntity.ok(orderService.getPlacementStats());
+    }
+
+    /**
+     * Get asynchronous order intake statistics
+     */
+    @GetMapping("/orders/intake/stats")
+    public ResponseEntity<Map<String, Object>> getOrderIntakeStats() {
+        return ResponseEntity.ok(orderIntakeService.getStats());
+    }
+
+    /**
+     * Get Idempotency-Key replay statistics
+     */
+    @GetMapping("/idempotency/stats")
+    public ResponseEntity<Map<String, Object>> getIdempotencyStats() {
+        return ResponseEntity.ok(idempotencyService.getStats());
+    }
+
+    /**
+     * Get adaptive concurrency limiter state per endpoint class
+     */
+    @GetMapping("/limiter/stats")
+    public ResponseEntity<Map<String, Object>> getLimiterStats() {
+        return ResponseEntity.ok(concurrencyLimits.getStats());
+    }
+
+    /**
+     * Get kitchen auto-assignment queues, counters and order-to-start times
+     */
+    @GetMapping("/kitchen/assignment/stats")
+    public ResponseEntity<Map<String, Object>> getKitchenAssignmentStats() {
+        return ResponseEntity.ok(kitchenAssignmentScheduler.getStats());
+    }
+
+    /**
+     * Get analytics bulkhead occupancy and rejection statistics
+     */
+    @GetMapping("/bulkhead/stats")
+    public ResponseEntity<Map<String, Object>> getBulkheadStats() {
+        return ResponseEntity.ok(analyticsBulkhead.getStats());
+    }
+
+    /**
+     * Run orphaned image collection now
+     */
+    @PostMapping("/images/gc")
+    public ResponseEntity<Map<String, Object>> collectOrphanedImages() {
         try {
-            Map<String, Object> analytics = adminService.getTodayAnalytics();
-            return ResponseEntity.ok(analytics);
+            return ResponseEntity.ok(imageGarbageCollector.collect());
+        } catch (IllegalStateException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(409).body(error);
         } catch (Exception e) {
-            logger.error("Failed to get today analytics: {}", e.getMessage());
-            return ResponseEntity.badRequest().build();
+            logger.error("Failed to collect orphaned images: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
         }
     }
 
+    /**
+     * Get the report of the last image collection
+     */
+    @GetMapping("/images/gc")
+    public ResponseEntity<Map<String, Object>> getImageGcReport() {
+        Map<String, Object> report = imageGarbageCollector.getLastReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Get today's analytics
+     */
+    @GetMapping("/analytics/today")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getTodayAnalytics() {
+        return analyticsBulkhead.submit(() -> {
+            try {
+                Map<String, Object> analytics = adminService.getTodayAnalytics();
+                return ResponseEntity.ok(analytics);
+            } catch (Exception e) {
+                logger.error("Failed to get today analytics: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        });
+    }
+
     /**
      * Get last 7 days analytics
      */
     @GetMapping("/analytics/last7days")
-    public ResponseEntity<List<Map<String, Object>>> getLast7DaysAnalytics() {
-        try {
-            List<Map<String, Object>> analytics = adminService.getLast7DaysAnalytics();
-            return ResponseEntity.ok(analytics);
-        } catch (Exception e) {
-            logger.error("Failed to get last 7 days analytics: {}", e.getMessage());
-            return ResponseEntity.badRequest().build();
-        }
+    public CompletableFuture<ResponseEntity<List<Map<String, Object>>>> getLast7DaysAnalytics() {
+        return analyticsBulkhead.submit(() -> {
+            try {
+                List<Map<String, Object>> analytics = adminService.getLast7DaysAnalytics();
+                return ResponseEntity.ok(analytics);
+            } catch (Exception e) {
+                logger.error("Failed to get last 7 days analytics: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        });
     }
 
     /**
      * Get top items analytics
      */
     @GetMapping("/analytics/top-items")
-    public ResponseEntity<List<Map<String, Object>>> getTopItemsAnalytics(
+    public CompletableFuture<ResponseEntity<List<Map<String, Object>>>> getTopItemsAnalytics(
             @RequestParam(defaultValue = "10") int limit) {
-        try {
-            List<Map<String, Object>> analytics = adminService.getTopItemsAnalytics(limit);
-            return ResponseEntity.ok(analytics);
-        } catch (Exception e) {
-            logger.error("Failed to get top items analytics: {}", e.getMessage());
-            return ResponseEntity.badRequest().build();
-        }
+        return analyticsBulkhead.submit(() -> {
+            try {
+                List<Map<String, Object>> analytics = adminService.getTopItemsAnalytics(limit);
+                return ResponseEntity.ok(analytics);
+            } catch (Exception e) {
+                logger.error("Failed to get top items analytics: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        });
     }
 
     /**
      * Get order status distribution
      */
     @GetMapping("/analytics/order-status")
-    public ResponseEntity<Map<String, Object>> getOrderStatusDistribution() {
-        try {
-            Map<String, Object> distribution = adminService.getOrderStatusDistribution();
-            return ResponseEntity.ok(distribution);
-        } catch (Exception e) {
-            logger.error("Failed to get order status distribution: {}", e.getMessage());
-            return ResponseEntity.badRequest().build();
-        }
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getOrderStatusDistribution() {
+        return analyticsBulkhead.submit(() -> {
+            try {
+                Map<String, Object> distribution = adminService.getOrderStatusDistribution();
+                return ResponseEntity.ok(distribution);
+            } catch (Exception e) {
+                logger.error("Failed to get order status distribution: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        });
     }
 
     /**
      * Get monthly analytics
      */
     @GetMapping("/analytics/monthly")
-    public ResponseEntity<List<Map<String, Object>>> getMonthlyAnalytics(
+    public CompletableFuture<ResponseEntity<List<Map<String, Object>>>> getMonthlyAnalytics(
             @RequestParam(defaultValue = "12") int months) {
-        try {
-            List<Map<String, Object>> analytics = adminService.getMonthlyAnalytics(months);
-            return ResponseEntity.ok(analytics);
-        } catch (Exception e) {
-            logger.error("Failed to get monthly analytics: {}", e.getMessage());
-            return ResponseEntity.badRequest().build();
-        }
+        return analyticsBulkhead.submit(() -> {
+            try {
+                List<Map<String, Object>> analytics = adminService.getMonthlyAnalytics(months);
+                return ResponseEntity.ok(analytics);
+            } catch (Exception e) {
+                logger.error("Failed to get monthly analytics: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        });
     }
 
     /**
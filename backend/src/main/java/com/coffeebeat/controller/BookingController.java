@@ -1,10 +1,15 @@
 package com.coffeebeat.controller;
 
 import com.coffeebeat.model.Booking;
+import com.coffeebeat.service.AnalyticsBulkhead;
+import com.coffeebeat.service.BookingCalendarService;
+import com.coffeebeat.service.BookingSearchIndex;
 import com.coffeebeat.service.BookingService;
+import com.coffeebeat.service.TableOccupancyTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
@@ -12,6 +17,7 @@ import jakarta.validation.Valid;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/bookings")
@@ -22,6 +28,18 @@ public class BookingController {
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private BookingCalendarService bookingCalendarService;
+
+    @Autowired
+    private TableOccupancyTracker tableOccupancyTracker;
+
+    @Autowired
+    private BookingSearchIndex bookingSearchIndex;
+
+    @Autowired
+    private AnalyticsBulkhead analyticsBulkhead;
+
     @GetMapping
     public ResponseEntity<List<Booking>> getAllBookings() {
         try {
@@ -68,6 +86,7 @@ public class BookingController {
             booking.setPeopleCount(bookingRequest.getPeopleCount());
             booking.setTimeSlot(bookingRequest.getTimeSlot());
             booking.setSpecialRequests(bookingRequest.getSpecialRequests());
+            booking.setDurationMinutes(bookingRequest.getDurationMinutes());
 
             // Set optional customer info
             booking.setCustomerName(bookingRequest.getCustomerName());
@@ -80,7 +99,9 @@ public class BookingController {
 
             if (userDetails != null) {
                 userEmail = userDetails.getUsername();
-                Booking createdBooking = bookingService.createBooking(booking, userEmail);
+                Booking createdBooking = bookingRequest.isAnyTable()
+                        ? bookingService.createBookingAnyTable(booking, userEmail)
+                        : bookingService.createBooking(booking, userEmail);
                 return ResponseEntity.status(201).body(createdBooking);
             } else {
                 // Allow anonymous bookings if we have contact info?
@@ -95,7 +116,8 @@ public class BookingController {
         } catch (IllegalArgumentException e) {
             logger.error("Booking validation failed: {}", e.getMessage());
             // Return 409 Conflict for uniqueness/validation errors
-            if (e.getMessage().contains("already booked") || e.getMessage().contains("User not found")) {
+            if (e.getMessage().contains("already booked") || e.getMessage().contains("No table available")
+                    || e.getMessage().contains("User not found")) {
                 return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
             }
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -105,6 +127,32 @@ public class BookingController {
         }
     }
 
+    /**
+     * Create a recurring or bulk series of bookings on one table
+     */
+    @PostMapping("/series")
+    public ResponseEntity<?> createBookingSeries(
+            @Valid @RequestBody com.coffeebeat.dto.CreateBookingSeriesRequest seriesRequest,
+            @org.springframework.security.core.annotation.AuthenticationPrincipal org.springframework.security.core.userdetails.UserDetails userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Authentication required"));
+        }
+        try {
+            Map<String, Object> result = bookingService.createBookingSeries(seriesRequest, userDetails.getUsername());
+            boolean anyCreated = !((List<?>) result.get("created")).isEmpty();
+            return ResponseEntity.status(anyCreated ? 201 : 409).body(result);
+        } catch (IllegalArgumentException e) {
+            logger.error("Booking series validation failed: {}", e.getMessage());
+            if (e.getMessage().contains("User not found")) {
+                return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+            }
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Create booking series failed: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "Failed to create booking series"));
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Booking> getBooking(@PathVariable String id) {
         try {
@@ -214,6 +262,15 @@ public class BookingController {
 
             Booking updatedBooking = bookingService.updateBooking(id, bookingUpdates, userEmail);
             return ResponseEntity.ok(updatedBooking);
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Update booking kept conflicting: {}", e.getMessage());
+            return ResponseEntity.status(409).build();
+        } catch (IllegalArgumentException e) {
+            logger.error("Update booking failed: {}", e.getMessage());
+            if (e.getMessage() != null && e.getMessage().contains("already booked")) {
+                return ResponseEntity.status(409).build();
+            }
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Update booking failed: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
@@ -226,9 +283,7 @@ public class BookingController {
     @PutMapping("/{id}/cancel")
     public ResponseEntity<Booking> cancelBooking(@PathVariable String id) {
         try {
-            Booking booking = bookingService.getBookingById(id);
-            booking.setStatus(Booking.BookingStatus.CANCELLED);
-            Booking cancelledBooking = bookingService.updateBooking(booking);
+            Booking cancelledBooking = bookingService.updateBookingStatus(id, Booking.BookingStatus.CANCELLED);
             logger.info("Booking {} cancelled", id);
             return ResponseEntity.ok(cancelledBooking);
         } catch (Exception e) {
@@ -243,9 +298,7 @@ public class BookingController {
     @PutMapping("/{id}/complete")
     public ResponseEntity<Booking> completeBooking(@PathVariable String id) {
         try {
-            Booking booking = bookingService.getBookingById(id);
-            booking.setStatus(Booking.BookingStatus.COMPLETED);
-            Booking completedBooking = bookingService.updateBooking(booking);
+            Booking completedBooking = bookingService.updateBookingStatus(id, Booking.BookingStatus.COMPLETED);
             logger.info("Booking {} completed", id);
             return ResponseEntity.ok(completedBooking);
         } catch (Exception e) {
@@ -286,16 +339,80 @@ public class BookingController {
      * Get booking statistics
      */
     @GetMapping("/stats")
-    public ResponseEntity<?> getBookingStats() {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getBookingStats() {
+        return analyticsBulkhead.submit(() -> {
+            try {
+                java.util.Map<String, Object> stats = bookingService.getBookingStats();
+                return ResponseEntity.ok(stats);
+            } catch (Exception e) {
+                logger.error("Get booking stats failed: {}", e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        });
+    }
+
+    /**
+     * Availability of every table for a date or date range
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<?> getFloorAvailability(
+            @RequestParam String date,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) List<String> tables) {
         try {
-            java.util.Map<String, Object> stats = bookingService.getBookingStats();
-            return ResponseEntity.ok(stats);
+            java.time.LocalDate from = java.time.LocalDate.parse(date);
+            java.time.LocalDate to = endDate != null ? java.time.LocalDate.parse(endDate) : from;
+            return ResponseEntity.ok(bookingService.getFloorAvailability(from, to, tables));
+        } catch (IllegalArgumentException | java.time.format.DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            logger.error("Get booking stats failed: {}", e.getMessage());
-            return ResponseEntity.badRequest().build();
+            logger.error("Get floor availability failed: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body(Map.of("error", "Failed to get availability"));
         }
     }
 
+    /**
+     * Per-day, per-slot booking counts and covers for a month (yyyy-MM, default current)
+     */
+    @GetMapping("/calendar")
+    public ResponseEntity<?> getBookingCalendar(@RequestParam(required = false) String month) {
+        try {
+            java.time.YearMonth yearMonth = month != null ? java.time.YearMonth.parse(month) : java.time.YearMonth.now();
+            return ResponseEntity.ok(bookingCalendarService.getMonth(yearMonth));
+        } catch (java.time.format.DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Month must be in yyyy-MM format"));
+        } catch (Exception e) {
+            logger.error("Get booking calendar failed: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body(Map.of("error", "Failed to get booking calendar"));
+        }
+    }
+
+    /**
+     * Search today's and upcoming bookings by customer name, email or phone (staff only)
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchBookings(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        long start = System.nanoTime();
+        List<Map<String, Object>> results = bookingSearchIndex.search(query, Math.min(Math.max(limit, 1), 50));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("data", results);
+        response.put("count", results.size());
+        response.put("query", query);
+        response.put("tookMicros", (System.nanoTime() - start) / 1000);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Live state of every table with guest details (state changes are pushed to /topic/tables without them)
+     */
+    @GetMapping("/tables/live")
+    public ResponseEntity<List<Map<String, Object>>> getLiveTables() {
+        return ResponseEntity.ok(tableOccupancyTracker.getSnapshot());
+    }
+
     /**
      * Check table availability
      */
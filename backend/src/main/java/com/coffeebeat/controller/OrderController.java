@@ -1,7 +1,12 @@
 package com.coffeebeat.controller;
 
 import com.coffeebeat.model.Order;
+import com.coffeebeat.model.OrderIntake;
+import com.coffeebeat.service.AnalyticsBulkhead;
+import com.coffeebeat.service.IdempotencyService;
+import com.coffeebeat.service.OrderIntakeService;
 import com.coffeebeat.service.OrderService;
+import com.coffeebeat.service.ProductionBoard;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,8 +19,11 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -23,9 +31,31 @@ public class OrderController {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
 
+    // Kitchen actions available in bulk, by path segment
+    private static final Map<String, Order.OrderStatus> BULK_ACTIONS = new LinkedHashMap<>();
+
+    static {
+        BULK_ACTIONS.put("confirm", Order.OrderStatus.CONFIRMED);
+        BULK_ACTIONS.put("start-preparing", Order.OrderStatus.PREPARING);
+        BULK_ACTIONS.put("mark-ready", Order.OrderStatus.READY_FOR_SERVICE);
+        BULK_ACTIONS.put("serve", Order.OrderStatus.SERVED);
+    }
+
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private AnalyticsBulkhead analyticsBulkhead;
+
+    @Autowired
+    private ProductionBoard productionBoard;
+
     /**
      * Create a new order
      */
@@ -35,14 +65,35 @@ public class OrderController {
     @PostMapping
 public ResponseEntity<?> createOrder(
         @jakarta.validation.Valid @RequestBody com.coffeebeat.dto.CreateOrderRequest orderRequest,
+        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
         @AuthenticationPrincipal UserDetails userDetails) {
+    logger.info("Received order creation request for user: {}",
+            userDetails != null ? userDetails.getUsername() : "anonymous");
+
+    String userId = "anonymous";
+    if (userDetails != null) {
+        userId = userDetails.getUsername();
+    }
+
+    if (idempotencyKey == null) {
+        return placeOrder(orderRequest, userId);
+    }
+    // A retried request with the same key gets the first response instead of a second order
+    String user = userId;
     try {
-        logger.info("Received order creation request for user: {}",
-                userDetails != null ? userDetails.getUsername() : "anonymous");
+        return idempotencyService.execute(userId, idempotencyKey, orderRequest, () -> placeOrder(orderRequest, user));
+    } catch (IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
 
-        String userId = "anonymous";
-        if (userDetails != null) {
-            userId = userDetails.getUsername();
+private ResponseEntity<?> placeOrder(com.coffeebeat.dto.CreateOrderRequest orderRequest, String userId) {
+    try {
+        if (orderIntakeService.isAsync()) {
+            // Queue it; the outcome arrives on /topic/order-intake/{ticketId}
+            OrderIntake intake = orderIntakeService.enqueue(orderRequest, userId);
+            logger.info("Order request queued with ticket: {}", intake.getId());
+            return ResponseEntity.status(202).body(orderIntakeService.toTicket(intake));
         }
 
         Order createdOrder = orderService.createOrderFromDto(orderRequest, userId);
@@ -62,6 +113,25 @@ public ResponseEntity<?> createOrder(
     }
 }
 
+    /**
+     * Get an order intake ticket (own tickets only, unless admin)
+     */
+    @GetMapping("/intake/{ticketId}")
+    public ResponseEntity<?> getIntakeTicket(@PathVariable String ticketId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        OrderIntake intake = orderIntakeService.getTicket(ticketId);
+        if (intake == null) {
+            return ResponseEntity.notFound().build();
+        }
+        boolean isAdmin = userDetails != null && userDetails.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        String username = userDetails != null ? userDetails.getUsername() : "anonymous";
+        if (!isAdmin && !username.equals(intake.getUserIdentifier())) {
+            return ResponseEntity.status(403).body(Map.of("error", "Access denied to ticket: " + ticketId));
+        }
+        return ResponseEntity.ok(orderIntakeService.toTicket(intake));
+    }
+
     /**
      * Get order by ID
      */
@@ -133,14 +203,16 @@ public ResponseEntity<?> createOrder(
      * Get order statistics (admin)
      */
     @GetMapping("/stats")
-    public ResponseEntity<Map<String, Object>> getOrderStats() {
-        try {
-            Map<String, Object> stats = orderService.getOrderStats();
-            return ResponseEntity.ok(stats);
-        } catch (Exception e) {
-            logger.error("Get order stats failed: {}", e.getMessage(), e);
-            return ResponseEntity.badRequest().build();
-        }
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getOrderStats() {
+        return analyticsBulkhead.submit(() -> {
+            try {
+                Map<String, Object> stats = orderService.getOrderStats();
+                return ResponseEntity.ok(stats);
+            } catch (Exception e) {
+                logger.error("Get order stats failed: {}", e.getMessage(), e);
+                return ResponseEntity.badRequest().build();
+            }
+        });
     }
 
     /**
@@ -191,6 +263,14 @@ public ResponseEntity<?> createOrder(
         }
     }
 
+    /**
+     * Get pending and in-progress item quantities per product (also pushed to /topic/production-board on change)
+     */
+    @GetMapping("/production-board")
+    public ResponseEntity<Map<String, Object>> getProductionBoard() {
+        return ResponseEntity.ok(productionBoard.getSnapshot());
+    }
+
     /**
      * Get orders needing chef attention
      */
@@ -226,7 +306,7 @@ public ResponseEntity<?> createOrder(
      * Update order status
      */
     @PutMapping("/{id}/status")
-    public ResponseEntity<Order> updateOrderStatus(
+    public ResponseEntity<?> updateOrderStatus(
             @PathVariable String id,
             @jakarta.validation.Valid @RequestBody com.coffeebeat.dto.UpdateOrderStatusRequest request,
             @AuthenticationPrincipal UserDetails userDetails) {
@@ -249,26 +329,76 @@ public ResponseEntity<?> createOrder(
                     userEmail);
 
             return ResponseEntity.ok(updatedOrder);
+        } catch (IllegalStateException e) {
+            // Another update moved the order first
+            logger.warn("Order status update conflict: {}", e.getMessage());
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
         } catch (IllegalArgumentException e) {
             logger.error("Invalid status update: {}", e.getMessage());
-            return ResponseEntity.badRequest().build();
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Update order status failed: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().build();
         }
     }
 
+    /**
+     * Apply one kitchen action to a batch of orders
+     *
+     * Actions: confirm, start-preparing, mark-ready, serve. The response
+     * carries a result per order; orders that could not be moved do not fail
+     * the others.
+     */
+    @PostMapping("/bulk/{action}")
+    public ResponseEntity<?> bulkUpdateOrderStatus(
+            @PathVariable String action,
+            @jakarta.validation.Valid @RequestBody com.coffeebeat.dto.BulkOrderStatusRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        Order.OrderStatus orderStatus = BULK_ACTIONS.get(action);
+        if (orderStatus == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown bulk action: " + action
+                    + " (allowed: " + BULK_ACTIONS.keySet() + ")"));
+        }
+        try {
+            String userEmail = userDetails != null ? userDetails.getUsername() : "admin@coffee.test";
+
+            List<Map<String, Object>> results = orderService.bulkUpdateOrderStatus(
+                    request.getOrderIds(),
+                    orderStatus,
+                    request.getChefId(),
+                    request.getWaiterId(),
+                    userEmail);
+
+            long succeeded = results.stream().filter(result -> Boolean.TRUE.equals(result.get("success"))).count();
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", orderStatus);
+            response.put("succeeded", succeeded);
+            response.put("failed", results.size() - succeeded);
+            response.put("results", results);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid bulk status update: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Bulk order status update failed: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Cancel order
      */
     @PutMapping("/{id}/cancel")
-    public ResponseEntity<Order> cancelOrder(
+    public ResponseEntity<?> cancelOrder(
             @PathVariable String id,
             @AuthenticationPrincipal UserDetails userDetails) {
         try {
             String userEmail = userDetails != null ? userDetails.getUsername() : "admin@coffee.test";
             Order cancelledOrder = orderService.cancelOrder(id, userEmail);
             return ResponseEntity.ok(cancelledOrder);
+        } catch (IllegalStateException e) {
+            logger.warn("Cancel order conflict: {}", e.getMessage());
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Cancel order failed: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().build();
@@ -5,14 +5,21 @@ import com.coffeebeat.dto.QuantityAdjustmentRequest;
 import com.coffeebeat.dto.StockUpdateRequest;
 import com.coffeebeat.dto.UpdateProductRequest;
 import com.coffeebeat.model.Product;
+import com.coffeebeat.service.AnalyticsBulkhead;
+import com.coffeebeat.service.ImageDeliveryService;
+import com.coffeebeat.service.ImageStorageService;
+import com.coffeebeat.service.ProductSearchIndex;
 import com.coffeebeat.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -21,6 +28,7 @@ import jakarta.validation.Valid;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -44,6 +52,18 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ImageDeliveryService imageDeliveryService;
+
+    @Autowired
+    private ImageStorageService imageStorageService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private AnalyticsBulkhead analyticsBulkhead;
+
     /**
      * Get all active products (public endpoint) - lightweight version
      */
@@ -224,6 +244,12 @@ public class ProductController {
             response.put("data", updated);
 
             return ResponseEntity.ok(response);
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Product update kept conflicting: {}", e.getMessage());
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", "Product was modified concurrently, please retry");
+            return ResponseEntity.status(409).body(error);
         } catch (IllegalArgumentException e) {
             logger.warn("Product not found: {}", e.getMessage());
             Map<String, Object> error = new HashMap<>();
@@ -247,22 +273,8 @@ public class ProductController {
             @RequestParam("file") MultipartFile file,
             @RequestParam("productName") String productName) {
         try {
-            // Create upload directory if it doesn't exist
-            java.nio.file.Path uploadPath = java.nio.file.Paths.get("uploads", "products");
-            if (!java.nio.file.Files.exists(uploadPath)) {
-                java.nio.file.Files.createDirectories(uploadPath);
-            }
-
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = originalFilename != null ? 
-                originalFilename.substring(originalFilename.lastIndexOf(".")) : "";
-            String uniqueFilename = productName.replaceAll("[^a-zA-Z0-9]", "_") + 
-                "_" + java.util.UUID.randomUUID().toString().substring(0, 8) + fileExtension;
-
-            // Save file
-            java.nio.file.Path filePath = uploadPath.resolve(uniqueFilename);
-            java.nio.file.Files.copy(file.getInputStream(), filePath);
+            // Stored under its content hash; productName is kept for API compatibility
+            String uniqueFilename = imageStorageService.store(file, imageStorageService.getProductImageDir());
 
             // Return response with file URL
             String fileUrl = "/uploads/products/" + uniqueFilename;
@@ -287,22 +299,9 @@ public class ProductController {
      * Serve uploaded product images
      */
     @GetMapping("/uploads/products/{filename}")
-    public ResponseEntity<byte[]> getProductImage(@PathVariable String filename) {
+    public ResponseEntity<Resource> getProductImage(@PathVariable String filename, HttpServletRequest request) {
         try {
-            java.nio.file.Path filePath = java.nio.file.Paths.get("uploads", "products", filename);
-            if (!java.nio.file.Files.exists(filePath)) {
-                return ResponseEntity.notFound().build();
-            }
-
-            byte[] fileContent = java.nio.file.Files.readAllBytes(filePath);
-            String contentType = java.nio.file.Files.probeContentType(filePath);
-            if (contentType == null) {
-                contentType = "image/jpeg";
-            }
-
-            return ResponseEntity.ok()
-                .header("Content-Type", contentType)
-                .body(fileContent);
+            return imageDeliveryService.serve(imageStorageService.getProductImageDir(), filename, request);
         } catch (Exception e) {
             logger.error("Failed to serve image: {}", e.getMessage(), e);
             return ResponseEntity.internalServerError().build();
@@ -405,22 +404,24 @@ public class ProductController {
      * Get product statistics (admin only)
      */
     @GetMapping("/admin/stats")
-    public ResponseEntity<?> getProductStats() {
-        try {
-            Map<String, Object> stats = productService.getProductStats();
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("data", stats);
-
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            logger.error("Failed to get product stats: {}", e.getMessage());
-            Map<String, Object> error = new HashMap<>();
-            error.put("success", false);
-            error.put("message", "Failed to retrieve product statistics");
-            return ResponseEntity.internalServerError().body(error);
-        }
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getProductStats() {
+        return analyticsBulkhead.submit(() -> {
+            try {
+                Map<String, Object> stats = productService.getProductStats();
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("data", stats);
+
+                return ResponseEntity.ok(response);
+            } catch (Exception e) {
+                logger.error("Failed to get product stats: {}", e.getMessage());
+                Map<String, Object> error = new HashMap<>();
+                error.put("success", false);
+                error.put("message", "Failed to retrieve product statistics");
+                return ResponseEntity.internalServerError().body(error);
+            }
+        });
     }
 
     /**
@@ -457,6 +458,25 @@ public class ProductController {
         }
     }
 
+    /**
+     * Autocomplete suggestions from the in-memory search index (public endpoint)
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<?> autocomplete(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "8") int limit) {
+        long started = System.nanoTime();
+        List<Map<String, Object>> suggestions = productSearchIndex.suggest(query, Math.min(Math.max(limit, 1), 50));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", suggestions);
+        response.put("count", suggestions.size());
+        response.put("query", query);
+        response.put("tookMicros", (System.nanoTime() - started) / 1000);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Get products by category (public endpoint)
      */
@@ -603,6 +623,12 @@ public class ProductController {
             response.put("data", updated);
 
             return ResponseEntity.ok(response);
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Product update kept conflicting: {}", e.getMessage());
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", "Product was modified concurrently, please retry");
+            return ResponseEntity.status(409).body(error);
         } catch (IllegalArgumentException e) {
             logger.warn("Product update validation failed: {}", e.getMessage());
             Map<String, Object> error = new HashMap<>();
@@ -0,0 +1,40 @@
+package com.coffeebeat.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public class BulkOrderStatusRequest {
+
+    @NotEmpty(message = "Order ids are required")
+    private List<String> orderIds;
+
+    private String chefId;
+
+    private String waiterId;
+
+    // Getters and Setters
+    public List<String> getOrderIds() {
+        return orderIds;
+    }
+
+    public void setOrderIds(List<String> orderIds) {
+        this.orderIds = orderIds;
+    }
+
+    public String getChefId() {
+        return chefId;
+    }
+
+    public void setChefId(String chefId) {
+        this.chefId = chefId;
+    }
+
+    public String getWaiterId() {
+        return waiterId;
+    }
+
+    public void setWaiterId(String waiterId) {
+        this.waiterId = waiterId;
+    }
+}
@@ -1,6 +1,7 @@
 package com.coffeebeat.dto;
 
 import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -11,6 +12,11 @@ import java.time.LocalDateTime;
  */
 public class CreateBookingRequest {
 
+    /**
+     * Table number that lets the seating engine pick the table
+     */
+    public static final String ANY_TABLE = "ANY";
+
     @NotBlank(message = "Table number is required")
     private String tableNumber;
 
@@ -24,6 +30,10 @@ public class CreateBookingRequest {
 
     private String specialRequests;
 
+    @Min(value = 15, message = "Duration must be at least 15 minutes")
+    @Max(value = 480, message = "Duration must not exceed 8 hours")
+    private Integer durationMinutes;
+
     // Optional contact info if not authenticated or booking for someone else
     private String customerName;
     private String customerEmail;
@@ -46,6 +56,10 @@ public class CreateBookingRequest {
         this.tableNumber = tableNumber;
     }
 
+    public boolean isAnyTable() {
+        return ANY_TABLE.equalsIgnoreCase(tableNumber);
+    }
+
     public Integer getPeopleCount() {
         return peopleCount;
     }
@@ -93,4 +107,12 @@ public class CreateBookingRequest {
     public void setCustomerPhone(String customerPhone) {
         this.customerPhone = customerPhone;
     }
+
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
 }
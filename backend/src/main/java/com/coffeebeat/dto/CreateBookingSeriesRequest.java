@@ -0,0 +1,162 @@
+package com.coffeebeat.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Data Transfer Object for creating a recurring or bulk series of bookings
+ *
+ * Either list the occurrences in timeSlots, or give the first occurrence
+ * in firstTimeSlot with a frequency and an end (until or occurrences).
+ */
+public class CreateBookingSeriesRequest {
+
+    public enum Frequency {
+        DAILY,
+        WEEKDAYS,
+        WEEKLY
+    }
+
+    @NotBlank(message = "Table number is required")
+    private String tableNumber;
+
+    @NotNull(message = "People count is required")
+    @Min(value = 1, message = "At least 1 person is required")
+    private Integer peopleCount;
+
+    // Bulk mode: explicit occurrences
+    private List<LocalDateTime> timeSlots;
+
+    // Recurring mode
+    private LocalDateTime firstTimeSlot;
+    private Frequency frequency;
+    private LocalDate until;
+
+    @Min(value = 1, message = "At least 1 occurrence is required")
+    private Integer occurrences;
+
+    // Create the free occurrences when some conflict (default), or nothing at all
+    private Boolean skipConflicts = true;
+
+    private String specialRequests;
+
+    @Min(value = 15, message = "Duration must be at least 15 minutes")
+    @Max(value = 480, message = "Duration must not exceed 8 hours")
+    private Integer durationMinutes;
+
+    private String customerName;
+    private String customerEmail;
+    private String customerPhone;
+
+    public CreateBookingSeriesRequest() {
+    }
+
+    public String getTableNumber() {
+        return tableNumber;
+    }
+
+    public void setTableNumber(String tableNumber) {
+        this.tableNumber = tableNumber;
+    }
+
+    public Integer getPeopleCount() {
+        return peopleCount;
+    }
+
+    public void setPeopleCount(Integer peopleCount) {
+        this.peopleCount = peopleCount;
+    }
+
+    public List<LocalDateTime> getTimeSlots() {
+        return timeSlots;
+    }
+
+    public void setTimeSlots(List<LocalDateTime> timeSlots) {
+        this.timeSlots = timeSlots;
+    }
+
+    public LocalDateTime getFirstTimeSlot() {
+        return firstTimeSlot;
+    }
+
+    public void setFirstTimeSlot(LocalDateTime firstTimeSlot) {
+        this.firstTimeSlot = firstTimeSlot;
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(Frequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public LocalDate getUntil() {
+        return until;
+    }
+
+    public void setUntil(LocalDate until) {
+        this.until = until;
+    }
+
+    public Integer getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(Integer occurrences) {
+        this.occurrences = occurrences;
+    }
+
+    public Boolean getSkipConflicts() {
+        return skipConflicts;
+    }
+
+    public void setSkipConflicts(Boolean skipConflicts) {
+        this.skipConflicts = skipConflicts;
+    }
+
+    public String getSpecialRequests() {
+        return specialRequests;
+    }
+
+    public void setSpecialRequests(String specialRequests) {
+        this.specialRequests = specialRequests;
+    }
+
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public void setCustomerName(String customerName) {
+        this.customerName = customerName;
+    }
+
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+
+    public void setCustomerEmail(String customerEmail) {
+        this.customerEmail = customerEmail;
+    }
+
+    public String getCustomerPhone() {
+        return customerPhone;
+    }
+
+    public void setCustomerPhone(String customerPhone) {
+        this.customerPhone = customerPhone;
+    }
+}
@@ -1,8 +1,8 @@
 package com.coffeebeat.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
-import org.springframework.data.mongodb.core.index.Indexed;
 
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.Min;
@@ -38,6 +38,11 @@ public class Booking {
             return status;
         }
 
+        // Statuses that hold a table (same set as the repository's active-booking queries)
+        public boolean holdsTable() {
+            return this == BOOKED || this == CONFIRMED || this == RESERVED || this == OCCUPIED;
+        }
+
         public static BookingStatus fromString(String status) {
             for (BookingStatus bs : BookingStatus.values()) {
                 if (bs.status.equalsIgnoreCase(status)) {
@@ -88,7 +93,6 @@ public class Booking {
     @Id
     private String id;
 
-    @Indexed
     @NotNull(message = "User ID is required")
     private String userId;
 
@@ -117,9 +121,22 @@ public class Booking {
     private String customerPhone;
     private String specialRequests;
 
+    // Expected length of stay; null means the configured default
+    private Integer durationMinutes;
+
+    // Set once the reminder for this booking has been sent
+    private LocalDateTime reminderSentAt;
+
+    // Shared by every occurrence of a recurring or bulk booking
+    private String seriesId;
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    // Optimistic lock; every write bumps it, so a save from a stale copy fails
+    @Version
+    private Long version;
+
     // Default constructor
     public Booking() {
         this.createdAt = LocalDateTime.now();
@@ -300,6 +317,14 @@ public class Booking {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getCustomerName() {
         return customerName;
     }
@@ -327,6 +352,31 @@ public class Booking {
         this.updatedAt = LocalDateTime.now();
     }
 
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public LocalDateTime getReminderSentAt() {
+        return reminderSentAt;
+    }
+
+    public void setReminderSentAt(LocalDateTime reminderSentAt) {
+        this.reminderSentAt = reminderSentAt;
+    }
+
+    public String getSeriesId() {
+        return seriesId;
+    }
+
+    public void setSeriesId(String seriesId) {
+        this.seriesId = seriesId;
+    }
+
     public String getSpecialRequests() {
         return specialRequests;
     }
@@ -1,6 +1,7 @@
 package com.coffeebeat.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.Indexed;
 
@@ -110,6 +111,10 @@ public class Order {
 
     private LocalDateTime updatedAt;
 
+    // Optimistic lock; every write bumps it, so a save from a stale copy fails
+    @Version
+    private Long version;
+
     // Nested class for order items
     public static class OrderItem {
         private String productId;
@@ -398,6 +403,14 @@ public class Order {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Order{" +
@@ -0,0 +1,158 @@
+package com.coffeebeat.model;
+
+import com.coffeebeat.dto.CreateOrderRequest;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A queued order request (intake ticket)
+ *
+ * Written as soon as an order request passes validation and worked off in
+ * arrival order by the intake workers. The ticket id doubles as the id of
+ * the order it produces, so processing a ticket twice cannot create two
+ * orders. Finished tickets expire after a day.
+ */
+@Document(collection = "order_intake")
+@CompoundIndex(name = "status_id", def = "{'status': 1, '_id': 1}")
+public class OrderIntake {
+
+    public enum IntakeStatus {
+        QUEUED,
+        PROCESSING,
+        ACCEPTED,
+        REJECTED,
+        FAILED;
+
+        public boolean isFinal() {
+            return this == ACCEPTED || this == REJECTED || this == FAILED;
+        }
+    }
+
+    @Id
+    private String id;
+
+    private String userIdentifier;
+
+    private CreateOrderRequest request;
+
+    private IntakeStatus status;
+
+    private int attempts;
+
+    private String claimedBy;
+
+    private LocalDateTime claimedAt;
+
+    private String orderId;
+
+    private String error;
+
+    private LocalDateTime createdAt;
+
+    @Indexed(expireAfter = "1d")
+    private LocalDateTime processedAt;
+
+    public OrderIntake() {
+        this.status = IntakeStatus.QUEUED;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public OrderIntake(String userIdentifier, CreateOrderRequest request) {
+        this();
+        this.userIdentifier = userIdentifier;
+        this.request = request;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUserIdentifier() {
+        return userIdentifier;
+    }
+
+    public void setUserIdentifier(String userIdentifier) {
+        this.userIdentifier = userIdentifier;
+    }
+
+    public CreateOrderRequest getRequest() {
+        return request;
+    }
+
+    public void setRequest(CreateOrderRequest request) {
+        this.request = request;
+    }
+
+    public IntakeStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(IntakeStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    public LocalDateTime getClaimedAt() {
+        return claimedAt;
+    }
+
+    public void setClaimedAt(LocalDateTime claimedAt) {
+        this.claimedAt = claimedAt;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+}
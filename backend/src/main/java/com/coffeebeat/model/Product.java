@@ -1,6 +1,7 @@
 package com.coffeebeat.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.index.TextIndexed;
@@ -66,6 +67,10 @@ public class Product {
 
     private LocalDateTime updatedAt;
 
+    // Optimistic lock; every write bumps it, so a save from a stale copy fails
+    @Version
+    private Long version;
+
     // Default constructor
     public Product() {
         this.createdAt = LocalDateTime.now();
@@ -266,6 +271,14 @@ public class Product {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Product{" +
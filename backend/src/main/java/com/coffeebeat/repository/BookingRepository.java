@@ -40,12 +40,23 @@ public interface BookingRepository extends MongoRepository<Booking, String> {
     List<Booking> findByTableNumberAndTimeSlotBetween(String tableNumber, LocalDateTime startTime,
             LocalDateTime endTime);
 
+    /**
+     * Find active bookings for all tables in a time slot range (end exclusive)
+     */
+    @Query("{ 'timeSlot': { '$gte': ?0, '$lt': ?1 }, 'status': { '$in': ['BOOKED', 'CONFIRMED', 'RESERVED', 'OCCUPIED'] } }")
+    List<Booking> findActiveBookingsBetween(LocalDateTime startTime, LocalDateTime endTime);
+
     /**
      * Find bookings by time slot range
      */
     @Query("{ 'timeSlot': { '$gte': ?0, '$lte': ?1 } }")
     List<Booking> findByTimeSlotBetween(LocalDateTime startTime, LocalDateTime endTime);
 
+    /**
+     * Find bookings at or after a point in time
+     */
+    List<Booking> findByTimeSlotGreaterThanEqual(LocalDateTime from);
+
     /**
      * Find active bookings for a specific time slot and table
      * Checks for BOOKED, CONFIRMED, RESERVED, OCCUPIED
@@ -93,9 +104,9 @@ public interface BookingRepository extends MongoRepository<Booking, String> {
     long countBookingsForTodayByStatus(LocalDateTime startOfDay, LocalDateTime endOfDay, Booking.BookingStatus status);
 
     /**
-     * Find bookings that need reminder (2 hours before)
+     * Find bookings starting in a window that have not been reminded yet
      */
-    @Query("{ 'timeSlot': { '$gte': ?0, '$lte': ?1 }, 'status': { '$in': ['BOOKED', 'CONFIRMED'] } }")
+    @Query("{ 'timeSlot': { '$gte': ?0, '$lte': ?1 }, 'status': { '$in': ['BOOKED', 'CONFIRMED'] }, 'reminderSentAt': null }")
     List<Booking> findBookingsNeedingReminder(LocalDateTime reminderStart, LocalDateTime reminderEnd);
 
     /**
@@ -18,7 +18,7 @@ import java.util.Optional;
  * and custom queries for Order entities.
  */
 @Repository
-public interface OrderRepository extends MongoRepository<Order, String> {
+public interface OrderRepository extends MongoRepository<Order, String>, OrderRepositoryCustom {
     
     /**
      * Find orders by user ID
@@ -59,6 +59,11 @@ public interface OrderRepository extends MongoRepository<Order, String> {
      * Find orders by table booking ID
      */
     List<Order> findByTableBookingId(String tableBookingId);
+
+    /**
+     * Find orders linked to any of the given table bookings
+     */
+    List<Order> findByTableBookingIdIn(List<String> tableBookingIds);
     
     /**
      * Find orders by date range
@@ -0,0 +1,53 @@
+package com.coffeebeat.repository;
+
+import com.coffeebeat.model.Order;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Targeted update operations for Order entities
+ *
+ * Each method is a single findAndModify (or, for several orders, a single
+ * bulk write) that $sets only the given fields, so concurrent staff actions
+ * on the same order (e.g. a chef assignment and a waiter's status change) no
+ * longer overwrite each other. Methods return the order as it is after the
+ * update, or null when no document matched. Listeners see these writes as
+ * regular order save events.
+ */
+public interface OrderRepositoryCustom {
+
+    /**
+     * Move an order from the expected status to the next one (compare-and-set)
+     *
+     * @return the updated order, or null if the order is missing or no longer in the expected status
+     */
+    Order transitionStatus(String orderId, Order.OrderStatus expected, Order.OrderStatus next,
+            Map<String, Object> fields, LocalDateTime updatedAt);
+
+    /**
+     * Move several orders to the next status in one bulk write
+     *
+     * Each order is moved only if its status and version are still those of
+     * the given copy, so an order changed since it was read is left alone.
+     *
+     * @return the orders that were moved, as they are after the update
+     */
+    List<Order> transitionStatuses(List<Order> expected, Order.OrderStatus next, Map<String, Object> fields,
+            LocalDateTime updatedAt);
+
+    /**
+     * Assign a staff member to an order still in the expected status with nobody assigned in that role
+     *
+     * @param field assignedChefId or assignedWaiterId
+     * @return the updated order, or null if the order moved on or was assigned meanwhile
+     */
+    Order assignIfUnassigned(String orderId, Order.OrderStatus expected, String field, String staffId,
+            LocalDateTime updatedAt);
+
+    /**
+     * Set fields of an order regardless of its status
+     */
+    Order updateOrderFields(String orderId, Map<String, Object> fields, LocalDateTime updatedAt);
+}
@@ -0,0 +1,105 @@
+package com.coffeebeat.repository;
+
+import com.coffeebeat.model.Order;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MongoTemplate implementation of {@link OrderRepositoryCustom}
+ */
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public Order transitionStatus(String orderId, Order.OrderStatus expected, Order.OrderStatus next,
+            Map<String, Object> fields, LocalDateTime updatedAt) {
+        Query query = new Query(Criteria.where("id").is(orderId).and("status").is(expected));
+        Update update = toUpdate(fields, updatedAt).set("status", next);
+        return afterSave(mongoTemplate.findAndModify(query, update, RETURN_NEW, Order.class));
+    }
+
+    @Override
+    public List<Order> transitionStatuses(List<Order> expected, Order.OrderStatus next, Map<String, Object> fields,
+            LocalDateTime updatedAt) {
+        if (expected.isEmpty()) {
+            return List.of();
+        }
+
+        // Bulk updates do not bump @Version themselves; do it here so a moved order is recognizable below
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+        Map<String, Long> movedVersions = new HashMap<>();
+        for (Order order : expected) {
+            Query query = new Query(Criteria.where("id").is(order.getId())
+                    .and("status").is(order.getStatus())
+                    .and("version").is(order.getVersion()));
+            bulk.updateOne(query, toUpdate(fields, updatedAt).set("status", next).inc("version", 1));
+            movedVersions.put(order.getId(), order.getVersion() == null ? 1L : order.getVersion() + 1);
+        }
+        if (bulk.execute().getModifiedCount() == 0) {
+            return List.of();
+        }
+
+        List<Order> moved = new ArrayList<>();
+        Query query = new Query(Criteria.where("id").in(movedVersions.keySet()));
+        for (Order order : mongoTemplate.find(query, Order.class)) {
+            if (order.getStatus() == next && movedVersions.get(order.getId()).equals(order.getVersion())) {
+                moved.add(afterSave(order));
+            }
+        }
+        return moved;
+    }
+
+    @Override
+    public Order assignIfUnassigned(String orderId, Order.OrderStatus expected, String field, String staffId,
+            LocalDateTime updatedAt) {
+        Query query = new Query(Criteria.where("id").is(orderId).and("status").is(expected).and(field).is(null));
+        Update update = toUpdate(Map.of(field, staffId), updatedAt);
+        return afterSave(mongoTemplate.findAndModify(query, update, RETURN_NEW, Order.class));
+    }
+
+    @Override
+    public Order updateOrderFields(String orderId, Map<String, Object> fields, LocalDateTime updatedAt) {
+        Query query = new Query(Criteria.where("id").is(orderId));
+        return afterSave(mongoTemplate.findAndModify(query, toUpdate(fields, updatedAt), RETURN_NEW, Order.class));
+    }
+
+    private static Update toUpdate(Map<String, Object> fields, LocalDateTime updatedAt) {
+        Update update = new Update().set("updatedAt", updatedAt);
+        fields.forEach(update::set);
+        return update;
+    }
+
+    /**
+     * findAndModify and bulk writes emit no mapping events; publish the save so in-memory views stay current
+     */
+    private Order afterSave(Order order) {
+        if (order != null) {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(order, document);
+            eventPublisher.publishEvent(new AfterSaveEvent<>(order, document,
+                    mongoTemplate.getCollectionName(Order.class)));
+        }
+        return order;
+    }
+}
@@ -17,10 +17,11 @@ import java.util.Optional;
  * and custom queries for Product entities.
  * 
  * Enhanced with comprehensive query methods for product management,
- * inventory tracking, and search functionality.
+ * inventory tracking, and search functionality. Field-level updates
+ * live in {@link ProductRepositoryCustom}.
  */
 @Repository
-public interface ProductRepository extends MongoRepository<Product, String> {
+public interface ProductRepository extends MongoRepository<Product, String>, ProductRepositoryCustom {
     
     /**
      * Find product by slug
@@ -161,24 +162,6 @@ public interface ProductRepository extends MongoRepository<Product, String> {
     @Query(value = "{ '$group': { '_id': '$category', 'count': { '$sum': 1 }, 'avgPrice': { '$avg': '$price' }, 'totalStock': { '$sum': '$stock' } } }")
     List<ProductStats> getProductStatsByCategory();
     
-    /**
-     * Update product stock
-     */
-    @Query("{ '$set': { 'stock': ?1, 'updatedAt': ?2 } }")
-    void updateProductStock(String productId, Integer stock, java.time.LocalDateTime updatedAt);
-    
-    /**
-     * Update product price
-     */
-    @Query("{ '$set': { 'price': ?1, 'updatedAt': ?2 } }")
-    void updateProductPrice(String productId, Double price, java.time.LocalDateTime updatedAt);
-    
-    /**
-     * Update product active status
-     */
-    @Query("{ '$set': { 'isActive': ?1, 'updatedAt': ?2 } }")
-    void updateProductActiveStatus(String productId, boolean isActive, java.time.LocalDateTime updatedAt);
-    
     /**
      * Find products created after a specific date
      */
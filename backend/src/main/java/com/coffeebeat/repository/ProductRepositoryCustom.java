@@ -0,0 +1,59 @@
+package com.coffeebeat.repository;
+
+import com.coffeebeat.model.Product;
+
+import java.time.LocalDateTime;
+
+/**
+ * Field-level update operations for Product entities
+ *
+ * These methods touch only the changed fields ($set / $inc) instead of
+ * saving the whole document back, which matters because products may carry
+ * an inline base64 image. Methods returning a Product return the document
+ * as it is after the update, or null when no document matched.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Set product stock
+     */
+    Product updateProductStock(String productId, Integer stock, LocalDateTime updatedAt);
+
+    /**
+     * Set product active status
+     */
+    Product updateProductActiveStatus(String productId, boolean isActive, LocalDateTime updatedAt);
+
+    /**
+     * Flip product active status in a single write
+     */
+    Product toggleProductActiveStatus(String productId, LocalDateTime updatedAt);
+
+    /**
+     * Flip product availability (active and in stock) in a single write
+     *
+     * An available product is deactivated; any other product is activated.
+     */
+    Product toggleProductAvailability(String productId, LocalDateTime updatedAt);
+
+    /**
+     * Set stock of an active product
+     */
+    Product updateActiveProductStock(String productId, Integer stock, LocalDateTime updatedAt);
+
+    /**
+     * Add to the stock of an active product
+     *
+     * @throws IllegalArgumentException if quantity is not positive
+     * @return true if a product was updated
+     */
+    boolean incrementActiveProductStock(String productId, int quantity, LocalDateTime updatedAt);
+
+    /**
+     * Take from the stock of an active product, only if enough is left
+     *
+     * @throws IllegalArgumentException if quantity is not positive
+     * @return true if a product was updated
+     */
+    boolean decrementActiveProductStock(String productId, int quantity, LocalDateTime updatedAt);
+}
@@ -0,0 +1,96 @@
+package com.coffeebeat.repository;
+
+import com.coffeebeat.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.BooleanOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+
+/**
+ * MongoTemplate implementation of {@link ProductRepositoryCustom}
+ */
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Product updateProductStock(String productId, Integer stock, LocalDateTime updatedAt) {
+        return setField(byId(productId), "stock", stock, updatedAt);
+    }
+
+    @Override
+    public Product updateProductActiveStatus(String productId, boolean isActive, LocalDateTime updatedAt) {
+        return setField(byId(productId), "isActive", isActive, updatedAt);
+    }
+
+    @Override
+    public Product toggleProductActiveStatus(String productId, LocalDateTime updatedAt) {
+        // Pipeline update so the flip is computed server-side, no read-modify-write
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("isActive").toValue(BooleanOperators.Not.not("isActive"))
+                .set("updatedAt").toValue(updatedAt);
+        return mongoTemplate.findAndModify(byId(productId), update, RETURN_NEW, Product.class);
+    }
+
+    @Override
+    public Product toggleProductAvailability(String productId, LocalDateTime updatedAt) {
+        // isActive = !(isActive && stock > 0), computed server-side
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("isActive").toValue(BooleanOperators.Not.not(BooleanOperators.And.and(
+                        Fields.field("isActive"), ComparisonOperators.Gt.valueOf("stock").greaterThanValue(0))))
+                .set("updatedAt").toValue(updatedAt);
+        return mongoTemplate.findAndModify(byId(productId), update, RETURN_NEW, Product.class);
+    }
+
+    @Override
+    public Product updateActiveProductStock(String productId, Integer stock, LocalDateTime updatedAt) {
+        return setField(activeById(productId), "stock", stock, updatedAt);
+    }
+
+    @Override
+    public boolean incrementActiveProductStock(String productId, int quantity, LocalDateTime updatedAt) {
+        requirePositive(quantity);
+        Update update = new Update().inc("stock", quantity).set("updatedAt", updatedAt);
+        return mongoTemplate.updateFirst(activeById(productId), update, Product.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean decrementActiveProductStock(String productId, int quantity, LocalDateTime updatedAt) {
+        requirePositive(quantity);
+        Query query = new Query(Criteria.where("id").is(productId)
+                .and("isActive").is(true)
+                .and("stock").gte(quantity));
+        Update update = new Update().inc("stock", -quantity).set("updatedAt", updatedAt);
+        return mongoTemplate.updateFirst(query, update, Product.class).getModifiedCount() > 0;
+    }
+
+    private static void requirePositive(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+    }
+
+    private Product setField(Query query, String field, Object value, LocalDateTime updatedAt) {
+        Update update = new Update().set(field, value).set("updatedAt", updatedAt);
+        return mongoTemplate.findAndModify(query, update, RETURN_NEW, Product.class);
+    }
+
+    private Query byId(String productId) {
+        return new Query(Criteria.where("id").is(productId));
+    }
+
+    private Query activeById(String productId) {
+        return new Query(Criteria.where("id").is(productId).and("isActive").is(true));
+    }
+}
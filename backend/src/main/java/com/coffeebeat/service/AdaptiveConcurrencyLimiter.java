@@ -0,0 +1,150 @@
+package com.coffeebeat.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vegas-style adaptive concurrency limit
+ *
+ * Request latencies are averaged over short sample windows and compared with
+ * the no-load latency, the lowest window average seen. Their ratio estimates
+ * how many requests are queueing downstream: queue = limit * (1 - noLoad / rtt).
+ * With (almost) no queue the limit grows quickly, with a small one slowly,
+ * and once more than about 6 * log10(limit) requests queue it shrinks; in
+ * between it holds. The limit stays within [min, max] and is left alone
+ * while less than half of it is in use, since such a window says nothing
+ * about higher concurrency. The no-load latency is re-learned periodically
+ * so a lasting change in the baseline (e.g. a slower database tier) is
+ * picked up.
+ *
+ * Requests beyond the limit are refused immediately instead of queued.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    // Windows between resets of the no-load latency
+    private static final int PROBE_WINDOWS = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final int minWindowSamples;
+
+    private volatile double estimatedLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    // Current sample window; guarded by "this"
+    private long windowStart;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private int windowsSinceProbe;
+    private double noLoadRtt;
+    private double lastRtt;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long windowMillis,
+            int minWindowSamples) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.minWindowSamples = minWindowSamples;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Take a slot if the limit allows
+     *
+     * @return false if the request must be shed
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) estimatedLimit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Give back a slot taken by {@link #tryAcquire()} and record how long the request took
+     */
+    public void release(long rttNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        onSample(rttNanos, inFlightAtCompletion, System.nanoTime());
+    }
+
+    public int getLimit() {
+        return (int) estimatedLimit;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("limit", getLimit());
+        stats.put("inFlight", inFlight.get());
+        stats.put("accepted", accepted.get());
+        stats.put("rejected", rejected.get());
+        synchronized (this) {
+            stats.put("rttMs", lastRtt / 1_000_000.0);
+            stats.put("noLoadRttMs", noLoadRtt / 1_000_000.0);
+        }
+        return stats;
+    }
+
+    synchronized void onSample(long rttNanos, int inFlightAtCompletion, long now) {
+        if (windowSamples == 0) {
+            windowStart = now;
+        }
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtCompletion);
+        if (now - windowStart < windowNanos || windowSamples < minWindowSamples) {
+            return;
+        }
+
+        double windowRtt = (double) windowRttSum / windowSamples;
+        int maxInFlight = windowMaxInFlight;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        update(windowRtt, maxInFlight);
+    }
+
+    private void update(double rtt, int maxInFlight) {
+        lastRtt = rtt;
+        if (noLoadRtt == 0 || rtt < noLoadRtt || ++windowsSinceProbe >= PROBE_WINDOWS) {
+            noLoadRtt = rtt;
+            windowsSinceProbe = 0;
+            return;
+        }
+
+        double limit = estimatedLimit;
+        if (maxInFlight < limit / 2) {
+            return;
+        }
+        double queue = Math.ceil(limit * (1 - noLoadRtt / rtt));
+        double log = Math.max(1, Math.log10(limit));
+        double newLimit;
+        if (queue <= log) {
+            newLimit = limit + 6 * log;
+        } else if (queue < 3 * log) {
+            newLimit = limit + log;
+        } else if (queue > 6 * log) {
+            newLimit = limit - log;
+        } else {
+            return;
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
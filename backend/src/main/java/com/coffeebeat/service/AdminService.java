@@ -7,6 +7,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -48,6 +49,9 @@ public class AdminService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private AnalyticsQueries analyticsQueries;
+
     public List<User> getAllUsers(String search, Boolean active) {
         if (search != null && !search.isEmpty()) {
             return userRepository.findAll().stream()
@@ -194,35 +198,27 @@ public class AdminService {
         LocalDateTime endOfDay = startOfDay.plusDays(1);
 
         // Today's orders
-        List<Order> todayOrders = orderRepository.findOrdersForToday(startOfDay, endOfDay);
-        long todayOrderCount = todayOrders.size();
+        AnalyticsQueries.OrderTotals todayTotals = analyticsQueries.orderTotals(startOfDay, endOfDay);
+        long todayOrderCount = todayTotals.getOrders();
         
         logger.info("Found {} total orders for today", todayOrderCount);
 
         // Only completed orders for revenue
-        List<Order> completedOrders = todayOrders.stream()
-                .filter(order -> order.getStatus() == Order.OrderStatus.COMPLETED)
-                .collect(Collectors.toList());
-        
-        long completedOrderCount = completedOrders.size();
+        long completedOrderCount = todayTotals.getCompletedOrders();
         logger.info("Found {} completed orders for today", completedOrderCount);
 
         // Today's revenue (from completed orders only)
-        double completedOrdersRevenue = completedOrders.stream()
-                .filter(order -> order.getPaymentStatus() == Order.PaymentStatus.PAID)
-                .mapToDouble(Order::getTotalPrice)
-                .sum();
+        double completedOrdersRevenue = todayTotals.getCompletedPaidRevenue();
         
         logger.info("Today's revenue from completed orders: {}", completedOrdersRevenue);
 
         // Today's bookings
-        List<Booking> todayBookings = bookingRepository.findBookingsForToday(startOfDay, endOfDay);
-        long todayBookingCount = todayBookings.size();
+        long todayBookingCount = analyticsQueries.count(Booking.class,
+                Criteria.where("timeSlot").gte(startOfDay).lte(endOfDay));
 
         // Today's new users
-        long todayNewUsers = userRepository.findAll().stream()
-                .filter(user -> user.getCreatedAt().isAfter(startOfDay) && user.getCreatedAt().isBefore(endOfDay))
-                .count();
+        long todayNewUsers = analyticsQueries.count(User.class,
+                Criteria.where("createdAt").gt(startOfDay).lt(endOfDay));
 
         analytics.put("orderCount", todayOrderCount);
         analytics.put("completedOrdersCount", completedOrderCount);
@@ -249,17 +245,12 @@ public class AdminService {
             LocalDateTime dayStart = startOfDay.minusDays(i);
             LocalDateTime dayEnd = dayStart.plusDays(1);
 
-            List<Order> dayOrders = orderRepository.findOrdersForToday(dayStart, dayEnd);
-            long orderCount = dayOrders.size();
-            double revenue = dayOrders.stream()
-                    .filter(order -> order.getPaymentStatus() == Order.PaymentStatus.PAID)
-                    .mapToDouble(Order::getTotalPrice)
-                    .sum();
+            AnalyticsQueries.OrderTotals dayTotals = analyticsQueries.orderTotals(dayStart, dayEnd);
 
             Map<String, Object> dayData = new HashMap<>();
             dayData.put("date", dayStart.toLocalDate());
-            dayData.put("orderCount", orderCount);
-            dayData.put("revenue", revenue);
+            dayData.put("orderCount", dayTotals.getOrders());
+            dayData.put("revenue", dayTotals.getPaidRevenue());
 
             analytics.add(dayData);
         }
@@ -271,34 +262,7 @@ public class AdminService {
      * Get top items analytics
      */
     public List<Map<String, Object>> getTopItemsAnalytics(int limit) {
-        List<Order> allOrders = orderRepository.findAll();
-        Map<String, Map<String, Object>> itemStats = new HashMap<>();
-
-        // Aggregate item statistics
-        for (Order order : allOrders) {
-            for (Order.OrderItem item : order.getItems()) {
-                String productId = item.getProductId();
-
-                if (!itemStats.containsKey(productId)) {
-                    Map<String, Object> stats = new HashMap<>();
-                    stats.put("productId", productId);
-                    stats.put("productName", item.getProductName());
-                    stats.put("quantity", 0);
-                    stats.put("revenue", 0.0);
-                    itemStats.put(productId, stats);
-                }
-
-                Map<String, Object> stats = itemStats.get(productId);
-                stats.put("quantity", (Integer) stats.get("quantity") + item.getQuantity());
-                stats.put("revenue", (Double) stats.get("revenue") + (item.getPrice() * item.getQuantity()));
-            }
-        }
-
-        // Sort by quantity and limit
-        return itemStats.values().stream()
-                .sorted((a, b) -> Integer.compare((Integer) b.get("quantity"), (Integer) a.get("quantity")))
-                .limit(limit)
-                .collect(Collectors.toList());
+        return analyticsQueries.topItems(limit);
     }
 
     /**
@@ -314,17 +278,12 @@ public class AdminService {
             LocalDateTime monthStart = startOfMonth.minusMonths(i);
             LocalDateTime monthEnd = monthStart.plusMonths(1);
 
-            List<Order> monthOrders = orderRepository.findByDateRange(monthStart, monthEnd);
-            long orderCount = monthOrders.size();
-            double revenue = monthOrders.stream()
-                    .filter(order -> order.getPaymentStatus() == Order.PaymentStatus.PAID)
-                    .mapToDouble(Order::getTotalPrice)
-                    .sum();
+            AnalyticsQueries.OrderTotals monthTotals = analyticsQueries.orderTotals(monthStart, monthEnd);
 
             Map<String, Object> monthData = new HashMap<>();
             monthData.put("month", monthStart.getYear() + "-" + String.format("%02d", monthStart.getMonthValue()));
-            monthData.put("orderCount", orderCount);
-            monthData.put("revenue", revenue);
+            monthData.put("orderCount", monthTotals.getOrders());
+            monthData.put("revenue", monthTotals.getPaidRevenue());
 
             analytics.add(monthData);
         }
@@ -339,12 +298,12 @@ public class AdminService {
         Map<String, Object> stats = new HashMap<>();
 
         // User statistics
-        long totalUsers = userRepository.count();
-        long activeUsers = userRepository.findAllActive().size();
-        long adminUsers = userRepository.countByRoleAndIsActiveTrue("ROLE_ADMIN");
-        long chefUsers = userRepository.countByRoleAndIsActiveTrue("ROLE_CHEF");
-        long waiterUsers = userRepository.countByRoleAndIsActiveTrue("ROLE_WAITER");
-        long customerUsers = userRepository.countByRoleAndIsActiveTrue("ROLE_CUSTOMER");
+        long totalUsers = analyticsQueries.count(User.class, new Criteria());
+        long activeUsers = analyticsQueries.count(User.class, Criteria.where("isActive").is(true));
+        long adminUsers = countActiveUsers("ROLE_ADMIN");
+        long chefUsers = countActiveUsers("ROLE_CHEF");
+        long waiterUsers = countActiveUsers("ROLE_WAITER");
+        long customerUsers = countActiveUsers("ROLE_CUSTOMER");
 
         stats.put("totalUsers", totalUsers);
         stats.put("activeUsers", activeUsers);
@@ -354,13 +313,10 @@ public class AdminService {
         stats.put("customerUsers", customerUsers);
 
         // Order statistics
-        long totalOrders = orderRepository.count();
-        long pendingOrders = orderRepository.countByStatus(Order.OrderStatus.PENDING);
-        long completedOrders = orderRepository.countByStatus(Order.OrderStatus.COMPLETED);
-        double totalRevenue = orderRepository.findAll().stream()
-                .filter(order -> order.getPaymentStatus() == Order.PaymentStatus.PAID)
-                .mapToDouble(Order::getTotalPrice)
-                .sum();
+        long totalOrders = analyticsQueries.count(Order.class, new Criteria());
+        long pendingOrders = analyticsQueries.count(Order.class, Criteria.where("status").is(Order.OrderStatus.PENDING));
+        long completedOrders = analyticsQueries.count(Order.class, Criteria.where("status").is(Order.OrderStatus.COMPLETED));
+        double totalRevenue = analyticsQueries.paidRevenue();
 
         stats.put("totalOrders", totalOrders);
         stats.put("pendingOrders", pendingOrders);
@@ -368,25 +324,29 @@ public class AdminService {
         stats.put("totalRevenue", totalRevenue);
 
         // Product statistics
-        long totalProducts = productRepository.countActive();
-        long inStockProducts = productRepository.findInStock().size();
-        long lowStockProducts = productRepository.findLowStock().size();
+        long totalProducts = analyticsQueries.count(Product.class, Criteria.where("isActive").is(true));
+        long inStockProducts = analyticsQueries.count(Product.class,
+                Criteria.where("isActive").is(true).and("stock").gt(0));
+        long lowStockProducts = analyticsQueries.count(Product.class,
+                Criteria.where("isActive").is(true).and("stock").lt(10));
 
         stats.put("totalProducts", totalProducts);
         stats.put("inStockProducts", inStockProducts);
         stats.put("lowStockProducts", lowStockProducts);
 
         // Booking statistics
-        long totalBookings = bookingRepository.count();
-        long activeBookings = bookingRepository.countByStatus(Booking.BookingStatus.BOOKED);
+        long totalBookings = analyticsQueries.count(Booking.class, new Criteria());
+        long activeBookings = analyticsQueries.count(Booking.class,
+                Criteria.where("status").is(Booking.BookingStatus.BOOKED));
 
         stats.put("totalBookings", totalBookings);
         stats.put("activeBookings", activeBookings);
 
         // Invite token statistics
-        long totalInviteTokens = inviteTokenRepository.findAll().size();
-        long usedInviteTokens = inviteTokenRepository.findUsedTokens().size();
-        long expiredInviteTokens = inviteTokenRepository.findExpiredTokens(LocalDateTime.now()).size();
+        long totalInviteTokens = analyticsQueries.count(InviteToken.class, new Criteria());
+        long usedInviteTokens = analyticsQueries.count(InviteToken.class, Criteria.where("used").is(true));
+        long expiredInviteTokens = analyticsQueries.count(InviteToken.class,
+                Criteria.where("expiresAt").lt(LocalDateTime.now()));
 
         stats.put("totalInviteTokens", totalInviteTokens);
         stats.put("usedInviteTokens", usedInviteTokens);
@@ -395,15 +355,19 @@ public class AdminService {
         return stats;
     }
 
+    private long countActiveUsers(String role) {
+        return analyticsQueries.count(User.class, Criteria.where("role").is(role).and("isActive").is(true));
+    }
+
     /**
      * Get order status distribution
      */
     public Map<String, Object> getOrderStatusDistribution() {
         Map<String, Object> distribution = new HashMap<>();
+        Map<String, Long> counts = analyticsQueries.orderCountsByStatus();
 
         for (Order.OrderStatus status : Order.OrderStatus.values()) {
-            long count = orderRepository.countByStatus(status);
-            distribution.put(status.name().toLowerCase(), count);
+            distribution.put(status.name().toLowerCase(), counts.getOrDefault(status.name(), 0L));
         }
 
         return distribution;
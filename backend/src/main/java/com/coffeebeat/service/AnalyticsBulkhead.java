@@ -0,0 +1,110 @@
+package com.coffeebeat.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead for analytics and stats requests
+ *
+ * Reports run on a small executor of their own instead of on the servlet
+ * threads: the request thread hands the work over and is released, and when
+ * the executor and its short queue are full the report is refused with 503
+ * right away. However many dashboards are open, order and booking requests
+ * keep their threads (and, through the analytics connection pool, their
+ * database connections).
+ */
+@Service
+public class AnalyticsBulkhead {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsBulkhead.class);
+
+    @Value("${app.analytics.threads:2}")
+    private int threads;
+
+    @Value("${app.analytics.queue-size:8}")
+    private int queueSize;
+
+    @Value("${app.analytics.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
+    private ThreadPoolExecutor executor;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "analytics-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Run a report on the analytics executor
+     *
+     * @return the report's response, or 503 if the bulkhead is full
+     */
+    public <T> CompletableFuture<ResponseEntity<T>> submit(Supplier<ResponseEntity<T>> report) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    ResponseEntity<T> response = report.get();
+                    completed.incrementAndGet();
+                    return response;
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                    throw e;
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            logger.warn("Analytics bulkhead full ({} running, {} queued); refusing report",
+                    executor.getActiveCount(), executor.getQueue().size());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", String.valueOf(retryAfterSeconds))
+                    .build());
+        }
+    }
+
+    /**
+     * Executor occupancy and completed/failed/rejected counters
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("threads", threads);
+        stats.put("queueCapacity", queueSize);
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("completed", completed.get());
+        stats.put("failed", failed.get());
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+}
@@ -0,0 +1,183 @@
+package com.coffeebeat.service;
+
+import com.coffeebeat.model.Order;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.BooleanOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only analytics queries on the analytics connection pool
+ *
+ * Everything here runs on the analytics MongoTemplate, whose small pool of
+ * its own keeps reports from taking the connections order placement needs,
+ * and every query carries a server-side maxTimeMS so Mongo kills a runaway
+ * report instead of letting it hold a connection. Totals come from counts and
+ * aggregations rather than from loading whole documents.
+ */
+@Service
+public class AnalyticsQueries {
+
+    @Autowired
+    @Qualifier("analyticsMongoTemplate")
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.analytics.max-time:PT10S}")
+    private Duration maxTime;
+
+    /**
+     * Number of documents of a type matching the criteria
+     */
+    public long count(Class<?> type, Criteria criteria) {
+        return mongoTemplate.count(new Query(criteria).maxTime(maxTime), type);
+    }
+
+    /**
+     * Totals of the orders created between from and to (inclusive)
+     */
+    public OrderTotals orderTotals(LocalDateTime from, LocalDateTime to) {
+        ComparisonOperators.Eq paid = ComparisonOperators.Eq.valueOf("paymentStatus")
+                .equalToValue(Order.PaymentStatus.PAID.name());
+        ComparisonOperators.Eq completed = ComparisonOperators.Eq.valueOf("status")
+                .equalToValue(Order.OrderStatus.COMPLETED.name());
+
+        Document totals = aggregateOne(Order.class,
+                Aggregation.match(Criteria.where("createdAt").gte(from).lte(to)),
+                Aggregation.group()
+                        .count().as("orders")
+                        .sum(ConditionalOperators.when(paid).thenValueOf("totalPrice").otherwise(0))
+                        .as("paidRevenue")
+                        .sum(ConditionalOperators.when(completed).then(1).otherwise(0))
+                        .as("completedOrders")
+                        .sum(ConditionalOperators.when(BooleanOperators.And.and(completed, paid))
+                                .thenValueOf("totalPrice").otherwise(0))
+                        .as("completedPaidRevenue"));
+
+        if (totals == null) {
+            return new OrderTotals(0, 0.0, 0, 0.0);
+        }
+        return new OrderTotals(number(totals, "orders").longValue(), number(totals, "paidRevenue").doubleValue(),
+                number(totals, "completedOrders").longValue(), number(totals, "completedPaidRevenue").doubleValue());
+    }
+
+    /**
+     * Revenue of all paid orders
+     */
+    public double paidRevenue() {
+        Document totals = aggregateOne(Order.class,
+                Aggregation.match(Criteria.where("paymentStatus").is(Order.PaymentStatus.PAID)),
+                Aggregation.group().sum("totalPrice").as("revenue"));
+        return totals != null ? number(totals, "revenue").doubleValue() : 0.0;
+    }
+
+    /**
+     * Best-selling items over all orders, by quantity
+     */
+    public List<Map<String, Object>> topItems(int limit) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.unwind("items"),
+                Aggregation.group("items.productId")
+                        .first("items.productName").as("productName")
+                        .sum("items.quantity").as("quantity")
+                        .sum(ArithmeticOperators.Multiply.valueOf("items.price").multiplyBy("items.quantity"))
+                        .as("revenue"),
+                Aggregation.sort(Sort.Direction.DESC, "quantity"),
+                Aggregation.limit(limit))
+                .withOptions(options());
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Order.class, Document.class).getMappedResults()) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("productId", row.get("_id"));
+            item.put("productName", row.get("productName"));
+            item.put("quantity", number(row, "quantity").intValue());
+            item.put("revenue", number(row, "revenue").doubleValue());
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * Order counts per status
+     */
+    public Map<String, Long> orderCountsByStatus() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("status").count().as("count"))
+                .withOptions(options());
+
+        Map<String, Long> counts = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Order.class, Document.class).getMappedResults()) {
+            if (row.get("_id") != null) {
+                counts.put(row.get("_id").toString(), number(row, "count").longValue());
+            }
+        }
+        return counts;
+    }
+
+    private Document aggregateOne(Class<?> type, AggregationOperation... operations) {
+        Aggregation aggregation = Aggregation.newAggregation(operations).withOptions(options());
+        return mongoTemplate.aggregate(aggregation, type, Document.class).getUniqueMappedResult();
+    }
+
+    private AggregationOptions options() {
+        return AggregationOptions.builder().maxTime(maxTime).build();
+    }
+
+    private static Number number(Document document, String field) {
+        Object value = document.get(field);
+        return value instanceof Number ? (Number) value : 0;
+    }
+
+    /**
+     * Order count and revenue of a period
+     */
+    public static class OrderTotals {
+
+        private final long orders;
+        private final double paidRevenue;
+        private final long completedOrders;
+        private final double completedPaidRevenue;
+
+        OrderTotals(long orders, double paidRevenue, long completedOrders, double completedPaidRevenue) {
+            this.orders = orders;
+            this.paidRevenue = paidRevenue;
+            this.completedOrders = completedOrders;
+            this.completedPaidRevenue = completedPaidRevenue;
+        }
+
+        public long getOrders() {
+            return orders;
+        }
+
+        public double getPaidRevenue() {
+            return paidRevenue;
+        }
+
+        public long getCompletedOrders() {
+            return completedOrders;
+        }
+
+        public double getCompletedPaidRevenue() {
+            return completedPaidRevenue;
+        }
+    }
+}
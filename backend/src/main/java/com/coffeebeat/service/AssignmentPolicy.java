@@ -0,0 +1,24 @@
+package com.coffeebeat.service;
+
+import java.util.Map;
+
+/**
+ * How the kitchen assignment scheduler picks who takes an order
+ *
+ * Every bean implementing this interface is a candidate policy;
+ * app.kitchen.assignment.policy selects one by name.
+ */
+public interface AssignmentPolicy {
+
+    String getName();
+
+    /**
+     * Pick the staff member for the next order of a pool
+     *
+     * @param pool         "chef" or "waiter"; policies that keep state keep it per pool
+     * @param queueLengths open orders per active staff member of the pool, in roster order
+     * @param capacity     open orders one person may hold at most
+     * @return the chosen staff id, or null if everyone is at capacity
+     */
+    String choose(String pool, Map<String, Integer> queueLengths, int capacity);
+}
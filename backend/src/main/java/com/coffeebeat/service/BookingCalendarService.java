@@ -0,0 +1,197 @@
+package com.coffeebeat.service;
+
+import com.coffeebeat.model.Booking;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Month view of bookings for the admin calendar
+ *
+ * Per-day, per-slot booking counts by status and covers (people) come from
+ * one aggregation grouped on bookingDate, slot and status. Days before
+ * today no longer change in normal operation, so their summaries are cached
+ * and a month whose past days are all cached only aggregates from today on.
+ * A save of a past-day booking evicts that day; a delete clears the cache.
+ * Each eviction also bumps the month's generation, and summaries aggregated
+ * before a bump are returned but not cached.
+ */
+@Service
+public class BookingCalendarService extends AbstractMongoEventListener<Booking> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingCalendarService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Summaries of past days, including empty ones
+    private final Map<LocalDate, DaySummary> pastDays = new ConcurrentHashMap<>();
+
+    // Eviction generations; guarded by "this"
+    private final Map<YearMonth, Long> monthGenerations = new HashMap<>();
+    private long clearGeneration;
+
+    /**
+     * Per-day, per-slot booking counts and covers for a month
+     */
+    public Map<String, Object> getMonth(YearMonth month) {
+        LocalDate first = month.atDay(1);
+        LocalDate last = month.atEndOfMonth();
+        LocalDate today = LocalDate.now();
+
+        // Aggregate from the first day that is not cached
+        LocalDate from = first;
+        while (!from.isAfter(last) && from.isBefore(today) && pastDays.containsKey(from)) {
+            from = from.plusDays(1);
+        }
+
+        long generation = generation(month);
+        Map<LocalDate, DaySummary> fresh = from.isAfter(last) ? Map.of() : aggregate(from, last);
+        synchronized (this) {
+            // A booking of this month changed while aggregating; the next request aggregates again
+            if (generation == generation(month)) {
+                for (LocalDate day = from; !day.isAfter(last) && day.isBefore(today); day = day.plusDays(1)) {
+                    pastDays.put(day, fresh.getOrDefault(day, new DaySummary()));
+                }
+            }
+        }
+
+        Map<String, Object> days = new LinkedHashMap<>();
+        int totalBookings = 0;
+        int totalCovers = 0;
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            DaySummary summary = day.isBefore(from) ? pastDays.get(day) : fresh.get(day);
+            if (summary == null || summary.bookings == 0) {
+                continue;
+            }
+            days.put(day.toString(), summary.toMap());
+            totalBookings += summary.bookings;
+            totalCovers += summary.covers;
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("month", month.toString());
+        result.put("days", days);
+        result.put("totalBookings", totalBookings);
+        result.put("totalCovers", totalCovers);
+        return result;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Booking> event) {
+        Booking booking = event.getSource();
+        if (booking.getBookingDate() != null) {
+            LocalDate day = booking.getBookingDate().toLocalDate();
+            synchronized (this) {
+                monthGenerations.merge(YearMonth.from(day), 1L, Long::sum);
+                pastDays.remove(day);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onAfterDelete(AfterDeleteEvent<Booking> event) {
+        clearGeneration++;
+        pastDays.clear();
+    }
+
+    /**
+     * Grows with every eviction touching the month
+     */
+    private synchronized long generation(YearMonth month) {
+        return clearGeneration + monthGenerations.getOrDefault(month, 0L);
+    }
+
+    private Map<LocalDate, DaySummary> aggregate(LocalDate from, LocalDate to) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                // timeSlot carries the same day and is indexed together with status
+                Aggregation.match(Criteria.where("timeSlot")
+                        .gte(from.atStartOfDay())
+                        .lt(to.plusDays(1).atStartOfDay())),
+                Aggregation.group("bookingDate", "slot", "status")
+                        .count().as("count")
+                        .sum("peopleCount").as("covers"));
+
+        AggregationResults<Document> results = mongoTemplate.aggregate(aggregation, Booking.class, Document.class);
+
+        Map<LocalDate, DaySummary> summaries = new HashMap<>();
+        for (Document row : results.getMappedResults()) {
+            Document key = row.get("_id", Document.class);
+            Date bookingDate = key.getDate("bookingDate");
+            if (bookingDate == null) {
+                continue;
+            }
+            LocalDate day = bookingDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+            String slot = key.getString("slot");
+            String status = key.getString("status") != null ? key.getString("status") : "UNKNOWN";
+            int count = ((Number) row.get("count")).intValue();
+            int covers = row.get("covers") != null ? ((Number) row.get("covers")).intValue() : 0;
+            summaries.computeIfAbsent(day, d -> new DaySummary())
+                    .add(slot != null ? slot : "UNKNOWN", status, count, covers);
+        }
+        logger.debug("Aggregated booking calendar {} to {}: {} days", from, to, summaries.size());
+        return summaries;
+    }
+
+    private static class DaySummary {
+
+        private int bookings;
+        private int covers;
+        private final Map<String, Integer> byStatus = new TreeMap<>();
+        private final Map<String, SlotSummary> slots = new TreeMap<>();
+
+        void add(String slot, String status, int count, int people) {
+            bookings += count;
+            byStatus.merge(status, count, Integer::sum);
+            SlotSummary slotSummary = slots.computeIfAbsent(slot, s -> new SlotSummary());
+            slotSummary.bookings += count;
+            slotSummary.byStatus.merge(status, count, Integer::sum);
+            // Cancelled bookings are counted but do not bring covers
+            if (!Booking.BookingStatus.CANCELLED.name().equals(status)) {
+                covers += people;
+                slotSummary.covers += people;
+            }
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> slotMaps = new LinkedHashMap<>();
+            slots.forEach((slot, summary) -> slotMaps.put(slot, Map.of(
+                    "bookings", summary.bookings,
+                    "covers", summary.covers,
+                    "byStatus", summary.byStatus)));
+
+            Map<String, Object> map = new HashMap<>();
+            map.put("bookings", bookings);
+            map.put("covers", covers);
+            map.put("byStatus", byStatus);
+            map.put("slots", slotMaps);
+            return map;
+        }
+    }
+
+    private static class SlotSummary {
+
+        private int bookings;
+        private int covers;
+        private final Map<String, Integer> byStatus = new TreeMap<>();
+    }
+}
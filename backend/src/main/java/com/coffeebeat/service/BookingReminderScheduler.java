@@ -0,0 +1,244 @@
+package com.coffeebeat.service;
+
+import com.coffeebeat.model.Booking;
+import com.coffeebeat.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Booking reminder scheduler
+ *
+ * Every poll, the leader pulls the bookings starting within the lead time
+ * plus a look-ahead window ({@link BookingRepository#findBookingsNeedingReminder})
+ * and places each on a hierarchical timing wheel at start minus lead time.
+ * A one-second ticker advances the wheel and dispatches due reminders.
+ *
+ * Only the node holding the "booking-reminders" lease polls and fires.
+ * Each reminder is claimed with a conditional update on reminderSentAt
+ * before it is sent, so a leadership change never sends one twice.
+ *
+ * A wheel entry remembers the timeSlot it was scheduled for and the claim
+ * requires that timeSlot, so a booking moved after it was scheduled is
+ * skipped at the old time and scheduled again at the new one by the next
+ * poll that sees it.
+ */
+@Service
+public class BookingReminderScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingReminderScheduler.class);
+
+    private static final String LEASE_NAME = "booking-reminders";
+    private static final List<Booking.BookingStatus> REMINDABLE_STATUSES =
+            List.of(Booking.BookingStatus.BOOKED, Booking.BookingStatus.CONFIRMED);
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private LeaseService leaseService;
+
+    @Autowired(required = false)
+    private List<ReminderSink> reminderSinks = new ArrayList<>();
+
+    @Value("${app.reminders.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.reminders.lead-time:PT2H}")
+    private Duration leadTime;
+
+    @Value("${app.reminders.look-ahead:PT10M}")
+    private Duration lookAhead;
+
+    @Value("${app.reminders.lease-ttl:PT3M}")
+    private Duration leaseTtl;
+
+    // Wheel state; guarded by "this"
+    private TimingWheel<ScheduledReminder> wheel;
+    // bookingId -> timeSlot its latest wheel entry is for
+    private final Map<String, LocalDateTime> scheduled = new HashMap<>();
+    private volatile boolean leader;
+    private volatile long leaseValidUntil;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    /**
+     * Renew leadership and load the next batch of bookings onto the wheel
+     */
+    @Scheduled(fixedDelayString = "${app.reminders.poll-interval-ms:60000}", initialDelayString = "${app.reminders.initial-delay-ms:15000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+
+        long attemptedAt = System.currentTimeMillis();
+        if (!leaseService.tryAcquire(LEASE_NAME, leaseTtl)) {
+            if (leader) {
+                logger.info("Lost reminder leadership to another node");
+                resetWheel();
+            }
+            leader = false;
+            return;
+        }
+        if (!leader) {
+            logger.info("Node {} is now sending booking reminders", leaseService.getNodeId());
+        }
+        leader = true;
+        leaseValidUntil = attemptedAt + leaseTtl.toMillis();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> batch = bookingRepository.findBookingsNeedingReminder(now, now.plus(leadTime).plus(lookAhead));
+
+        List<ScheduledReminder> dueNow = new ArrayList<>();
+        synchronized (this) {
+            if (wheel == null) {
+                wheel = new TimingWheel<>(1000, 60, 3, System.currentTimeMillis());
+            }
+            for (Booking booking : batch) {
+                if (booking.getReminderSentAt() != null
+                        || booking.getTimeSlot().equals(scheduled.put(booking.getId(), booking.getTimeSlot()))) {
+                    continue;
+                }
+                // New or moved; an entry for an earlier time will fail its claim
+                ScheduledReminder reminder = new ScheduledReminder(booking.getId(), booking.getTimeSlot());
+                long remindAt = toMillis(booking.getTimeSlot().minus(leadTime));
+                if (!wheel.add(remindAt, reminder)) {
+                    dueNow.add(reminder);
+                }
+            }
+        }
+        dueNow.forEach(this::dispatch);
+    }
+
+    /**
+     * Advance the wheel and send whatever became due
+     */
+    @Scheduled(fixedRate = 1000)
+    public void tick() {
+        if (!leader) {
+            return;
+        }
+        if (System.currentTimeMillis() > leaseValidUntil) {
+            // Lease not renewed in time; stop firing until the next poll wins it back
+            leader = false;
+            resetWheel();
+            return;
+        }
+
+        List<ScheduledReminder> due;
+        synchronized (this) {
+            if (wheel == null) {
+                return;
+            }
+            due = wheel.advance(System.currentTimeMillis());
+        }
+        due.forEach(this::dispatch);
+    }
+
+    /**
+     * Scheduler statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("leader", leader);
+        stats.put("nodeId", leaseService.getNodeId());
+        synchronized (this) {
+            stats.put("pending", wheel != null ? wheel.size() : 0);
+        }
+        stats.put("sent", sent.get());
+        stats.put("skipped", skipped.get());
+        stats.put("sinks", reminderSinks.size());
+        return stats;
+    }
+
+    private void dispatch(ScheduledReminder reminder) {
+        String bookingId = reminder.bookingId;
+        synchronized (this) {
+            scheduled.remove(bookingId, reminder.timeSlot);
+        }
+        if (!reminder.timeSlot.isAfter(LocalDateTime.now())) {
+            skipped.incrementAndGet();
+            return;
+        }
+
+        try {
+            // Claim the reminder; a cancelled, moved or already reminded booking does not match
+            Query query = new Query(Criteria.where("id").is(bookingId)
+                    .and("reminderSentAt").is(null)
+                    .and("status").in(REMINDABLE_STATUSES)
+                    .and("timeSlot").is(reminder.timeSlot));
+            Booking booking = mongoTemplate.findAndModify(query,
+                    new Update().set("reminderSentAt", LocalDateTime.now()),
+                    FindAndModifyOptions.options().returnNew(true), Booking.class);
+            if (booking == null) {
+                skipped.incrementAndGet();
+                return;
+            }
+
+            String message = "Reminder: table " + booking.getTableNumber() + " is booked for you at "
+                    + booking.getTimeSlot().format(TIME_FORMAT);
+            notificationService.notifyBookingReminder(booking, message);
+            for (ReminderSink sink : reminderSinks) {
+                try {
+                    sink.sendReminder(booking, message);
+                } catch (Exception e) {
+                    logger.warn("Reminder sink {} failed for booking {}: {}",
+                            sink.getClass().getSimpleName(), bookingId, e.getMessage());
+                }
+            }
+            sent.incrementAndGet();
+        } catch (Exception e) {
+            logger.error("Failed to send reminder for booking {}: {}", bookingId, e.getMessage());
+        }
+    }
+
+    private synchronized void resetWheel() {
+        wheel = null;
+        scheduled.clear();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * A booking's reminder for the time it was scheduled for
+     */
+    private static class ScheduledReminder {
+
+        private final String bookingId;
+        private final LocalDateTime timeSlot;
+
+        ScheduledReminder(String bookingId, LocalDateTime timeSlot) {
+            this.bookingId = bookingId;
+            this.timeSlot = timeSlot;
+        }
+    }
+}
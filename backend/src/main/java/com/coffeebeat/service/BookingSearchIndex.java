@@ -0,0 +1,289 @@
+package com.coffeebeat.service;
+
+import com.coffeebeat.model.Booking;
+import com.coffeebeat.repository.BookingRepository;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index over today's and upcoming bookings for the host stand
+ *
+ * Customer name words, the email address (whole and its local-part words)
+ * and every suffix of the phone digits are keys of a sorted term map, so a
+ * prefix lookup is one range scan and any run of digits in a number (with
+ * or without its country code, or just the last four) finds it. Every query
+ * token must match; results are ordered by booking time.
+ *
+ * Loaded at startup, kept current from booking save and delete events and
+ * pruned of past days every night, so searching never touches Mongo.
+ */
+@Component
+public class BookingSearchIndex extends AbstractMongoEventListener<Booking> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingSearchIndex.class);
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}@.]+");
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_DIGITS = Pattern.compile("\\D+");
+    private static final Pattern PHONE_QUERY = Pattern.compile("[\\d\\s()+.-]+");
+
+    // Marks phone keys so they never collide with text terms
+    private static final char PHONE_KEY = '#';
+    private static final int MIN_PHONE_DIGITS = 3;
+    private static final int MAX_QUERY_TOKENS = 4;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    // Guarded by "this"
+    private final TreeMap<String, Set<String>> terms = new TreeMap<>();
+    private final Map<String, IndexedBooking> bookings = new HashMap<>();
+
+    /**
+     * Load today's and upcoming bookings
+     *
+     * The query runs under the lock so a booking saved while it is in flight
+     * is indexed after the reload instead of being wiped or reverted by it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<Booking> upcoming = bookingRepository.findByTimeSlotGreaterThanEqual(LocalDate.now().atStartOfDay());
+        terms.clear();
+        bookings.clear();
+        upcoming.forEach(this::add);
+        logger.info("Booking search index built: {} bookings, {} terms", upcoming.size(), terms.size());
+    }
+
+    /**
+     * Drop bookings from days that have passed
+     */
+    @Scheduled(cron = "${app.bookings.search.prune-cron:0 5 0 * * *}")
+    public synchronized void prune() {
+        LocalDateTime startOfToday = LocalDate.now().atStartOfDay();
+        List<String> past = new ArrayList<>();
+        bookings.values().forEach(booking -> {
+            if (booking.timeSlot.isBefore(startOfToday)) {
+                past.add(booking.id);
+            }
+        });
+        past.forEach(this::removeInternal);
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Booking> event) {
+        index(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Booking> event) {
+        Object id = event.getSource().get("_id");
+        if (id instanceof String || id instanceof ObjectId) {
+            remove(id.toString());
+        } else {
+            // Deleted by an arbitrary query; resync rather than guess what went
+            rebuild();
+        }
+    }
+
+    /**
+     * Add or refresh a booking; past bookings are dropped from the index
+     */
+    public synchronized void index(Booking booking) {
+        if (booking == null || booking.getId() == null) {
+            return;
+        }
+        removeInternal(booking.getId());
+        if (booking.getTimeSlot() != null && !booking.getTimeSlot().isBefore(LocalDate.now().atStartOfDay())) {
+            add(booking);
+        }
+    }
+
+    public synchronized void remove(String bookingId) {
+        removeInternal(bookingId);
+    }
+
+    /**
+     * Bookings whose customer name, email or phone match every query token by prefix
+     */
+    public synchronized List<Map<String, Object>> search(String query, int limit) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        if (queryTokens.size() > MAX_QUERY_TOKENS) {
+            queryTokens = queryTokens.subList(0, MAX_QUERY_TOKENS);
+        }
+
+        Set<String> matches = null;
+        for (String token : queryTokens) {
+            Set<String> tokenMatches = prefixMatches(token);
+            if (token.length() >= MIN_PHONE_DIGITS && NON_DIGITS.matcher(token).replaceAll("").length() == token.length()) {
+                tokenMatches.addAll(prefixMatches(PHONE_KEY + token));
+            }
+            if (matches == null) {
+                matches = tokenMatches;
+            } else {
+                matches.retainAll(tokenMatches);
+            }
+            if (matches.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        matches.stream()
+                .map(bookings::get)
+                .sorted(Comparator.comparing((IndexedBooking booking) -> booking.timeSlot).thenComparing(booking -> booking.id))
+                .limit(limit)
+                .forEach(booking -> results.add(booking.toResult()));
+        return results;
+    }
+
+    private Set<String> prefixMatches(String prefix) {
+        Set<String> ids = new HashSet<>();
+        terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values().forEach(ids::addAll);
+        return ids;
+    }
+
+    private void add(Booking booking) {
+        IndexedBooking indexed = new IndexedBooking(booking);
+        bookings.put(indexed.id, indexed);
+        for (String term : indexed.terms) {
+            terms.computeIfAbsent(term, key -> new HashSet<>(2)).add(indexed.id);
+        }
+    }
+
+    private void removeInternal(String bookingId) {
+        IndexedBooking indexed = bookings.remove(bookingId);
+        if (indexed == null) {
+            return;
+        }
+        for (String term : indexed.terms) {
+            Set<String> ids = terms.get(term);
+            if (ids != null && ids.remove(bookingId) && ids.isEmpty()) {
+                terms.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Query tokens: a phone number is one digit string, an email address is
+     * kept whole and anything else is split into words
+     */
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        if (PHONE_QUERY.matcher(text).matches()) {
+            String digits = NON_DIGITS.matcher(text).replaceAll("");
+            return digits.isEmpty() ? Collections.emptyList() : List.of(digits);
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(normalize(text))) {
+            if (token.indexOf('@') >= 0) {
+                tokens.add(token);
+                continue;
+            }
+            for (String word : WORD_SEPARATOR.split(token)) {
+                if (!word.isEmpty()) {
+                    tokens.add(word);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Search keys and result payload of a booking
+     */
+    private static class IndexedBooking {
+
+        private final String id;
+        private final LocalDateTime timeSlot;
+        private final String customerName;
+        private final String customerEmail;
+        private final String customerPhone;
+        private final String tableNumber;
+        private final Integer peopleCount;
+        private final Booking.BookingStatus status;
+        private final Set<String> terms = new HashSet<>();
+
+        IndexedBooking(Booking booking) {
+            this.id = booking.getId();
+            this.timeSlot = booking.getTimeSlot();
+            this.customerName = booking.getCustomerName();
+            this.customerEmail = booking.getCustomerEmail();
+            this.customerPhone = booking.getCustomerPhone();
+            this.tableNumber = booking.getTableNumber();
+            this.peopleCount = booking.getPeopleCount();
+            this.status = booking.getStatus();
+
+            if (customerName != null) {
+                for (String word : WORD_SEPARATOR.split(normalize(customerName))) {
+                    if (!word.isEmpty()) {
+                        terms.add(word);
+                    }
+                }
+            }
+            if (customerEmail != null && !customerEmail.isBlank()) {
+                String email = normalize(customerEmail.trim());
+                terms.add(email);
+                int at = email.indexOf('@');
+                for (String word : WORD_SEPARATOR.split(at > 0 ? email.substring(0, at) : email)) {
+                    if (!word.isEmpty()) {
+                        terms.add(word);
+                    }
+                }
+            }
+            if (customerPhone != null) {
+                String digits = NON_DIGITS.matcher(customerPhone).replaceAll("");
+                for (int i = 0; i + MIN_PHONE_DIGITS <= digits.length(); i++) {
+                    terms.add(PHONE_KEY + digits.substring(i));
+                }
+            }
+        }
+
+        Map<String, Object> toResult() {
+            Map<String, Object> result = new HashMap<>();
+            result.put("id", id);
+            result.put("customerName", customerName);
+            result.put("customerEmail", customerEmail);
+            result.put("customerPhone", customerPhone);
+            result.put("tableNumber", tableNumber);
+            result.put("peopleCount", peopleCount);
+            result.put("timeSlot", timeSlot);
+            result.put("status", status);
+            return result;
+        }
+    }
+}
@@ -1,24 +1,35 @@
 package com.coffeebeat.service;
 
+import com.coffeebeat.config.BookingIndexInitializer;
+import com.coffeebeat.dto.CreateBookingSeriesRequest;
 import com.coffeebeat.model.Booking;
 import com.coffeebeat.model.User;
 import com.coffeebeat.repository.BookingRepository;
 import com.coffeebeat.repository.UserRepository;
+import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Duration;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
 
 /**
  * Booking service for managing table reservations
@@ -34,12 +45,34 @@ public class BookingService {
 
     private static final Logger logger = LoggerFactory.getLogger(BookingService.class);
 
+    private static final int MAX_AVAILABILITY_RANGE_DAYS = 31;
+    private static final int MAX_SERIES_OCCURRENCES = 100;
+    private static final int MAX_SERIES_HORIZON_DAYS = 92;
+
     @Autowired
     private BookingRepository bookingRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TableAvailabilityIndex tableAvailabilityIndex;
+
+    @Autowired
+    private BookingIndexInitializer bookingIndexInitializer;
+
+    @Autowired
+    private SeatingEngine seatingEngine;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<Booking> getAllBookings() {
         return bookingRepository.findAll();
     }
@@ -69,10 +102,25 @@ public class BookingService {
         return bookingRepository.save(booking);
     }
 
+    /**
+     * Set a booking's status, re-reading it if a concurrent write got there first
+     */
+    public Booking updateBookingStatus(String id, Booking.BookingStatus status) {
+        return optimisticRetry.execute("booking.status", () -> {
+            Booking booking = bookingRepository.findById(id)
+                    .orElseThrow(() -> new IllegalArgumentException("Booking not found: " + id));
+            booking.setStatus(status);
+            return bookingRepository.save(booking);
+        });
+    }
+
     /**
      * Create new booking
+     *
+     * Validation and the availability pre-check are skipped for admins, but
+     * the unique slot index still rejects a second active booking of the
+     * same table, date and slot; that is reported like on the customer path.
      */
-    @Transactional
     public Booking createBookingForAdmin(Booking booking) {
         logger.info("Creating booking for admin user");
 
@@ -96,7 +144,12 @@ public class BookingService {
         // Set default status
         booking.setStatus(Booking.BookingStatus.BOOKED);
 
-        Booking savedBooking = bookingRepository.save(booking);
+        Booking savedBooking;
+        try {
+            savedBooking = bookingRepository.save(booking);
+        } catch (DuplicateKeyException e) {
+            throw slotAlreadyBooked(booking);
+        }
         logger.info("Booking created successfully with ID: {}", savedBooking.getId());
 
         return savedBooking;
@@ -130,21 +183,273 @@ public class BookingService {
             throw new IllegalArgumentException("Time slot must be in the future");
         }
 
-        // Check table availability using new date/slot validation
-        if (!isTableAvailableForDateAndSlot(booking.getTableNumber(), booking.getBookingDate(), booking.getSlot())) {
-            throw new IllegalArgumentException("Table " + booking.getTableNumber() +
-                    " is already booked for " + booking.getSlot().getSlot() + " on " + booking.getBookingDate().toLocalDate());
+        // Check table availability using new date/slot validation; with the unique
+        // slot index in place the insert itself is the (race-free) check
+        if (!bookingIndexInitializer.isSlotUniquenessEnforced()
+                && !isTableAvailableForDateAndSlot(booking.getTableNumber(), booking.getBookingDate(), booking.getSlot())) {
+            throw slotAlreadyBooked(booking);
         }
 
         // Set default status
         booking.setStatus(Booking.BookingStatus.BOOKED);
 
-        Booking savedBooking = bookingRepository.save(booking);
+        Booking savedBooking;
+        try {
+            savedBooking = bookingRepository.save(booking);
+        } catch (DuplicateKeyException e) {
+            throw slotAlreadyBooked(booking);
+        }
         logger.info("Booking created successfully: {}", savedBooking.getId());
 
         return savedBooking;
     }
 
+    /**
+     * Create a booking on whichever table best fits the party
+     *
+     * The seating engine holds the smallest free table that seats the party
+     * for the booking's duration; if the database still rejects that table
+     * for the date and slot, the next candidate is tried.
+     */
+    public Booking createBookingAnyTable(Booking booking, String userEmail) {
+        logger.info("Creating any-table booking for user: {}", userEmail);
+
+        Optional<User> userOpt = userRepository.findByEmail(userEmail);
+        if (userOpt.isEmpty()) {
+            throw new IllegalArgumentException("User not found: " + userEmail);
+        }
+        booking.setUserId(userOpt.get().getId());
+
+        validateBookingDetails(booking);
+
+        if (booking.getTimeSlot().isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Time slot must be in the future");
+        }
+        if (booking.getDurationMinutes() == null) {
+            booking.setDurationMinutes(seatingEngine.getDefaultDurationMinutes());
+        }
+        booking.setStatus(Booking.BookingStatus.BOOKED);
+
+        Set<String> rejected = new HashSet<>();
+        while (true) {
+            SeatingEngine.Allocation allocation = seatingEngine.allocate(booking.getPeopleCount(),
+                    booking.getTimeSlot(), booking.getDurationMinutes(), rejected);
+            if (allocation == null) {
+                throw new IllegalArgumentException("No table available for " + booking.getPeopleCount() +
+                        " people at " + booking.getTimeSlot());
+            }
+
+            try {
+                booking.setTableNumber(allocation.getTableNumber());
+                if (!bookingIndexInitializer.isSlotUniquenessEnforced()
+                        && !isTableAvailableForDateAndSlot(booking.getTableNumber(), booking.getBookingDate(), booking.getSlot())) {
+                    rejected.add(allocation.getTableNumber());
+                    continue;
+                }
+
+                // A failed insert leaves the initial version behind; clear it so this is an insert again
+                booking.setVersion(null);
+                Booking savedBooking = bookingRepository.save(booking);
+                logger.info("Booking {} seated at table {} ({} seats)", savedBooking.getId(),
+                        allocation.getTableNumber(), allocation.getCapacity());
+                return savedBooking;
+            } catch (DuplicateKeyException e) {
+                rejected.add(allocation.getTableNumber());
+            } finally {
+                seatingEngine.release(allocation);
+            }
+        }
+    }
+
+    /**
+     * Create a recurring or bulk series of bookings on one table
+     *
+     * All occurrences are checked against a single range query of the table's
+     * active bookings and the free ones are inserted with one insertMany.
+     * Occurrences that are taken, duplicated or invalid are reported back
+     * instead of failing the whole series, unless skipConflicts is false, in
+     * which case nothing is created when any occurrence conflicts.
+     */
+    public Map<String, Object> createBookingSeries(CreateBookingSeriesRequest request, String userEmail) {
+        Optional<User> userOpt = userRepository.findByEmail(userEmail);
+        if (userOpt.isEmpty()) {
+            throw new IllegalArgumentException("User not found: " + userEmail);
+        }
+        if (request.getPeopleCount() < 1 || request.getPeopleCount() > 20) {
+            throw new IllegalArgumentException("People count must be between 1 and 20");
+        }
+
+        List<LocalDateTime> times = seriesOccurrences(request);
+        String seriesId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+
+        // Everything the table holds across the series, in one query
+        Set<String> taken = new HashSet<>();
+        bookingRepository.findByTableNumberAndTimeSlotBetween(request.getTableNumber(),
+                times.get(0).toLocalDate().atStartOfDay(), times.get(times.size() - 1).toLocalDate().plusDays(1).atStartOfDay())
+                .forEach(existing -> taken.add(slotKey(existing)));
+
+        List<Booking> pending = new ArrayList<>();
+        List<Map<String, Object>> conflicts = new ArrayList<>();
+        for (LocalDateTime time : times) {
+            String problem = occurrenceProblem(time, now);
+            Booking.TimeSlot slot = Booking.TimeSlot.fromDateTime(time);
+            if (problem == null && !taken.add(slotKey(time.toLocalDate(), slot))) {
+                problem = "Table " + request.getTableNumber() + " is already booked for " + slot.getSlot()
+                        + " on " + time.toLocalDate();
+            }
+            if (problem != null) {
+                conflicts.add(Map.of("timeSlot", time.toString(), "reason", problem));
+                continue;
+            }
+
+            Booking booking = new Booking();
+            booking.setUserId(userOpt.get().getId());
+            booking.setTableNumber(request.getTableNumber());
+            booking.setPeopleCount(request.getPeopleCount());
+            booking.setTimeSlot(time);
+            booking.setDurationMinutes(request.getDurationMinutes());
+            booking.setSpecialRequests(request.getSpecialRequests());
+            booking.setCustomerName(request.getCustomerName());
+            booking.setCustomerEmail(request.getCustomerEmail());
+            booking.setCustomerPhone(request.getCustomerPhone());
+            booking.setSeriesId(seriesId);
+            booking.setStatus(Booking.BookingStatus.BOOKED);
+            pending.add(booking);
+        }
+
+        List<Booking> created = new ArrayList<>();
+        boolean skipConflicts = !Boolean.FALSE.equals(request.getSkipConflicts());
+        if (!pending.isEmpty() && (skipConflicts || conflicts.isEmpty())) {
+            try {
+                created.addAll(bookingRepository.insert(pending));
+            } catch (DuplicateKeyException e) {
+                // A booking raced in between the check and the insert; the ordered
+                // insertMany stopped there, so settle the rest one by one
+                created.addAll(insertSeriesRemainder(pending, seriesId, conflicts));
+                if (!skipConflicts && !conflicts.isEmpty()) {
+                    bookingRepository.deleteAll(created);
+                    created.clear();
+                }
+            }
+        }
+        logger.info("Booking series {} on table {}: {} created, {} conflicts", seriesId,
+                request.getTableNumber(), created.size(), conflicts.size());
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("seriesId", created.isEmpty() ? null : seriesId);
+        result.put("requested", times.size());
+        result.put("created", created);
+        result.put("conflicts", conflicts);
+        return result;
+    }
+
+    /**
+     * Occurrence times of a series request, sorted and bounded
+     */
+    private List<LocalDateTime> seriesOccurrences(CreateBookingSeriesRequest request) {
+        List<LocalDateTime> times = new ArrayList<>();
+        if (request.getTimeSlots() != null && !request.getTimeSlots().isEmpty()) {
+            times.addAll(request.getTimeSlots());
+        } else if (request.getFirstTimeSlot() != null && request.getFrequency() != null) {
+            if (request.getUntil() == null && request.getOccurrences() == null) {
+                throw new IllegalArgumentException("A recurring series needs an end date or an occurrence count");
+            }
+            LocalDateTime time = request.getFirstTimeSlot();
+            while ((request.getUntil() == null || !time.toLocalDate().isAfter(request.getUntil()))
+                    && (request.getOccurrences() == null || times.size() < request.getOccurrences())
+                    && times.size() <= MAX_SERIES_OCCURRENCES) {
+                if (request.getFrequency() != CreateBookingSeriesRequest.Frequency.WEEKDAYS
+                        || (time.getDayOfWeek() != DayOfWeek.SATURDAY && time.getDayOfWeek() != DayOfWeek.SUNDAY)) {
+                    times.add(time);
+                }
+                time = request.getFrequency() == CreateBookingSeriesRequest.Frequency.WEEKLY ? time.plusWeeks(1) : time.plusDays(1);
+            }
+        } else {
+            throw new IllegalArgumentException("Either timeSlots or firstTimeSlot with a frequency is required");
+        }
+
+        if (times.isEmpty()) {
+            throw new IllegalArgumentException("The series has no occurrences");
+        }
+        if (times.size() > MAX_SERIES_OCCURRENCES) {
+            throw new IllegalArgumentException("A series cannot have more than " + MAX_SERIES_OCCURRENCES + " occurrences");
+        }
+        times.sort(null);
+        return times;
+    }
+
+    /**
+     * Why a single occurrence of a series cannot be booked, or null if it can
+     */
+    private String occurrenceProblem(LocalDateTime time, LocalDateTime now) {
+        if (time.isBefore(now)) {
+            return "Time slot must be in the future";
+        }
+        if (time.getHour() < 8 || time.getHour() >= 22) {
+            return "Bookings must be between 8 AM and 10 PM";
+        }
+        if (time.isAfter(now.plusDays(MAX_SERIES_HORIZON_DAYS))) {
+            return "Series bookings cannot be made more than " + MAX_SERIES_HORIZON_DAYS + " days in advance";
+        }
+        return null;
+    }
+
+    /**
+     * Save the occurrences of a series that a failed insertMany did not write
+     *
+     * The bookings the batch did write got no save events, since the
+     * template only emits them after the whole insertMany succeeds; they are
+     * published here so the in-memory views see them (and, on a rollback,
+     * their deletes).
+     */
+    private List<Booking> insertSeriesRemainder(List<Booking> pending, String seriesId, List<Map<String, Object>> conflicts) {
+        Booking first = pending.get(0);
+        Map<String, Booking> written = new HashMap<>();
+        bookingRepository.findByTableNumberAndTimeSlotBetween(first.getTableNumber(), first.getBookingDate(),
+                pending.get(pending.size() - 1).getBookingDate().plusDays(1)).stream()
+                .filter(existing -> seriesId.equals(existing.getSeriesId()))
+                .forEach(existing -> written.put(slotKey(existing), existing));
+
+        List<Booking> created = new ArrayList<>();
+        for (Booking booking : pending) {
+            Booking existing = written.get(slotKey(booking));
+            if (existing != null) {
+                publishSaved(existing);
+                created.add(existing);
+                continue;
+            }
+            try {
+                booking.setId(null);
+                booking.setVersion(null);
+                created.add(bookingRepository.save(booking));
+            } catch (DuplicateKeyException e) {
+                conflicts.add(Map.of("timeSlot", booking.getTimeSlot().toString(),
+                        "reason", slotAlreadyBooked(booking).getMessage()));
+            }
+        }
+        return created;
+    }
+
+    private void publishSaved(Booking booking) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(booking, document);
+        eventPublisher.publishEvent(new AfterSaveEvent<>(booking, document,
+                mongoTemplate.getCollectionName(Booking.class)));
+    }
+
+    private static String slotKey(Booking booking) {
+        LocalDate date = booking.getBookingDate() != null
+                ? booking.getBookingDate().toLocalDate() : booking.getTimeSlot().toLocalDate();
+        Booking.TimeSlot slot = booking.getSlot() != null
+                ? booking.getSlot() : Booking.TimeSlot.fromDateTime(booking.getTimeSlot());
+        return slotKey(date, slot);
+    }
+
+    private static String slotKey(LocalDate date, Booking.TimeSlot slot) {
+        return date + "|" + slot;
+    }
+
     /**
      * Find booking by ID with user validation
      */
@@ -218,8 +523,11 @@ public class BookingService {
     /**
      * Update booking
      */
-    @Transactional
     public Booking updateBooking(String id, Booking bookingDetails, String userEmail) {
+        return optimisticRetry.execute("booking.update", () -> applyBookingUpdate(id, bookingDetails, userEmail));
+    }
+
+    private Booking applyBookingUpdate(String id, Booking bookingDetails, String userEmail) {
         logger.info("Updating booking: {} by user: {}", id, userEmail);
 
         Booking existingBooking = findById(id, userEmail);
@@ -275,12 +583,17 @@ public class BookingService {
         }
 
         // Check table availability using new date/slot validation (exclude current booking)
-        if (!isTableAvailableForDateAndSlotExcluding(existingBooking.getTableNumber(), existingBooking.getBookingDate(), existingBooking.getSlot(), id)) {
-            throw new IllegalArgumentException("Table " + existingBooking.getTableNumber() +
-                    " is already booked for " + existingBooking.getSlot().getSlot() + " on " + existingBooking.getBookingDate().toLocalDate());
+        if (!bookingIndexInitializer.isSlotUniquenessEnforced()
+                && !isTableAvailableForDateAndSlotExcluding(existingBooking.getTableNumber(), existingBooking.getBookingDate(), existingBooking.getSlot(), id)) {
+            throw slotAlreadyBooked(existingBooking);
         }
 
-        Booking updatedBooking = bookingRepository.save(existingBooking);
+        Booking updatedBooking;
+        try {
+            updatedBooking = bookingRepository.save(existingBooking);
+        } catch (DuplicateKeyException e) {
+            throw slotAlreadyBooked(existingBooking);
+        }
         logger.info("Booking updated successfully: {}", updatedBooking.getId());
 
         return updatedBooking;
@@ -289,8 +602,11 @@ public class BookingService {
     /**
      * Cancel booking
      */
-    @Transactional
     public Booking cancelBooking(String id, String userEmail) {
+        return optimisticRetry.execute("booking.cancel", () -> applyBookingCancel(id, userEmail));
+    }
+
+    private Booking applyBookingCancel(String id, String userEmail) {
         logger.info("Cancelling booking: {} by user: {}", id, userEmail);
 
         Booking booking = findById(id, userEmail);
@@ -317,8 +633,11 @@ public class BookingService {
     /**
      * Complete booking
      */
-    @Transactional
     public Booking completeBooking(String id, String userEmail) {
+        return optimisticRetry.execute("booking.complete", () -> applyBookingComplete(id, userEmail));
+    }
+
+    private Booking applyBookingComplete(String id, String userEmail) {
         logger.info("Completing booking: {} by user: {}", id, userEmail);
 
         Booking booking = findById(id, userEmail);
@@ -357,8 +676,7 @@ public class BookingService {
      * Check table availability (legacy method for backward compatibility)
      */
     public boolean isTableAvailable(String tableNumber, LocalDateTime timeSlot) {
-        Optional<Booking> existingBooking = bookingRepository.findActiveBookingForTableAndTime(tableNumber, timeSlot);
-        return existingBooking.isEmpty();
+        return tableAvailabilityIndex.isAvailable(tableNumber, timeSlot);
     }
 
     /**
@@ -440,20 +758,35 @@ public class BookingService {
         return stats;
     }
 
+    /**
+     * Conflict raised when the table is already taken for the booking's date and slot
+     */
+    private IllegalArgumentException slotAlreadyBooked(Booking booking) {
+        return new IllegalArgumentException("Table " + booking.getTableNumber() +
+                " is already booked for " + booking.getSlot().getSlot() + " on " + booking.getBookingDate().toLocalDate());
+    }
+
     /**
      * Validate booking
      */
     private void validateBooking(Booking booking) {
-        // Check if people count is reasonable
-        if (booking.getPeopleCount() < 1 || booking.getPeopleCount() > 20) {
-            throw new IllegalArgumentException("People count must be between 1 and 20");
-        }
-
         // Check if table number is valid
         if (booking.getTableNumber() == null || booking.getTableNumber().trim().isEmpty()) {
             throw new IllegalArgumentException("Table number is required");
         }
 
+        validateBookingDetails(booking);
+    }
+
+    /**
+     * Validate party size and time of a booking (everything but the table)
+     */
+    private void validateBookingDetails(Booking booking) {
+        // Check if people count is reasonable
+        if (booking.getPeopleCount() < 1 || booking.getPeopleCount() > 20) {
+            throw new IllegalArgumentException("People count must be between 1 and 20");
+        }
+
         // Check if time slot is during business hours (example: 8 AM to 10 PM)
         int hour = booking.getTimeSlot().getHour();
         if (hour < 8 || hour >= 22) {
@@ -472,39 +805,16 @@ public class BookingService {
      */
     public List<String> getAvailableTimeSlots(String tableNumber, String date) {
         try {
-            // Parse the date
             LocalDate bookingDate = LocalDate.parse(date);
-            LocalDateTime startOfDay = bookingDate.atStartOfDay();
-            LocalDateTime endOfDay = bookingDate.atTime(23, 59, 59);
 
-            // Get existing bookings for the table on that date
-            List<Booking> existingBookings = bookingRepository.findByTableNumberAndTimeSlotBetween(
-                    tableNumber, startOfDay, endOfDay);
+            // Free slots of the table, minus slots that started more than 30 minutes ago
+            long free = ~tableAvailabilityIndex.getOccupiedSlots(tableNumber, bookingDate)
+                    & bookableSlots(bookingDate, LocalDateTime.now());
 
-            // Generate time slots (every 30 minutes from 8 AM to 10 PM)
             List<String> timeSlots = new ArrayList<>();
-            LocalTime startTime = LocalTime.of(8, 0);
-            LocalTime endTime = LocalTime.of(22, 0);
-
-            LocalTime currentTime = startTime;
-            while (currentTime.isBefore(endTime)) {
-                LocalDateTime slotDateTime = bookingDate.atTime(currentTime);
-
-                // Check if this slot is available (not booked and in the future)
-                boolean isAvailable = slotDateTime.isAfter(LocalDateTime.now().minusMinutes(30)) &&
-                        existingBookings.stream().noneMatch(booking -> {
-                            LocalDateTime bookingTime = booking.getTimeSlot();
-                            // Check if booking is within 30 minutes of this slot
-                            return Math.abs(Duration.between(bookingTime, slotDateTime).toMinutes()) < 30;
-                        });
-
-                if (isAvailable) {
-                    timeSlots.add(currentTime.toString());
-                }
-
-                currentTime = currentTime.plusMinutes(30);
+            for (long remaining = free; remaining != 0; remaining &= remaining - 1) {
+                timeSlots.add(TableAvailabilityIndex.slotTime(Long.numberOfTrailingZeros(remaining)).toString());
             }
-
             return timeSlots;
 
         } catch (Exception e) {
@@ -512,4 +822,56 @@ public class BookingService {
             throw new RuntimeException("Failed to get available time slots: " + e.getMessage());
         }
     }
+
+    /**
+     * Table-by-slot availability for every day of a date range
+     *
+     * Each day maps table numbers to a slot string ('1' = occupied, slot i
+     * starts at 08:00 + 30 * i minutes). Every table on the floor plan is
+     * listed, plus any other table that is requested or has bookings.
+     */
+    public Map<String, Object> getFloorAvailability(LocalDate from, LocalDate to, List<String> tables) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        // Both ends are inclusive
+        if (!to.isBefore(from.plusDays(MAX_AVAILABILITY_RANGE_DAYS))) {
+            throw new IllegalArgumentException("Date range cannot exceed " + MAX_AVAILABILITY_RANGE_DAYS + " days");
+        }
+
+        String free = TableAvailabilityIndex.encode(0);
+        Map<String, Map<String, String>> dayMatrix = new LinkedHashMap<>();
+        tableAvailabilityIndex.getOccupiedSlots(from, to).forEach((date, masks) -> {
+            Map<String, String> tableSlots = new TreeMap<>();
+            seatingEngine.getTables().keySet().forEach(table -> tableSlots.put(table, free));
+            if (tables != null) {
+                tables.forEach(table -> tableSlots.put(table, free));
+            }
+            masks.forEach((table, mask) -> tableSlots.put(table, TableAvailabilityIndex.encode(mask)));
+            dayMatrix.put(date.toString(), tableSlots);
+        });
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("from", from.toString());
+        result.put("to", to.toString());
+        result.put("openingTime", TableAvailabilityIndex.OPENING_TIME.toString());
+        result.put("slotMinutes", TableAvailabilityIndex.SLOT_MINUTES);
+        result.put("slotsPerDay", TableAvailabilityIndex.SLOTS_PER_DAY);
+        result.put("days", dayMatrix);
+        return result;
+    }
+
+    /**
+     * Slots of a day that can still be booked at the given moment
+     */
+    private long bookableSlots(LocalDate date, LocalDateTime now) {
+        LocalDateTime cutoff = now.minusMinutes(TableAvailabilityIndex.SLOT_MINUTES);
+        if (date.isAfter(cutoff.toLocalDate())) {
+            return TableAvailabilityIndex.slotsFrom(LocalTime.MIN);
+        }
+        if (date.isBefore(cutoff.toLocalDate())) {
+            return 0;
+        }
+        return TableAvailabilityIndex.slotsFrom(cutoff.toLocalTime());
+    }
 }
@@ -0,0 +1,99 @@
+package com.coffeebeat.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Adaptive concurrency limits for the write endpoints
+ *
+ * Order, booking and auth writes each get their own
+ * {@link AdaptiveConcurrencyLimiter}, so a slow database path behind one
+ * class of endpoint cannot use up the threads the others need. Reads are
+ * not limited.
+ */
+@Service
+public class ConcurrencyLimits {
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    @Value("${app.limiter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.limiter.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${app.limiter.min-limit:4}")
+    private int minLimit;
+
+    @Value("${app.limiter.window-ms:1000}")
+    private long windowMillis;
+
+    @Value("${app.limiter.min-window-samples:10}")
+    private int minWindowSamples;
+
+    @Value("${app.limiter.orders.max-limit:100}")
+    private int ordersMaxLimit;
+
+    @Value("${app.limiter.bookings.max-limit:60}")
+    private int bookingsMaxLimit;
+
+    @Value("${app.limiter.auth.max-limit:40}")
+    private int authMaxLimit;
+
+    @Value("${app.limiter.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void createLimiters() {
+        limiters.put("orders", newLimiter(ordersMaxLimit));
+        limiters.put("bookings", newLimiter(bookingsMaxLimit));
+        limiters.put("auth", newLimiter(authMaxLimit));
+    }
+
+    /**
+     * Limiter for a request, or null if the request is not limited
+     */
+    public AdaptiveConcurrencyLimiter limiterFor(HttpServletRequest request) {
+        if (!enabled || !WRITE_METHODS.contains(request.getMethod())) {
+            return null;
+        }
+        String path = request.getRequestURI();
+        if (path.startsWith("/api/orders")) {
+            return limiters.get("orders");
+        }
+        if (path.startsWith("/api/bookings")) {
+            return limiters.get("bookings");
+        }
+        if (path.startsWith("/api/auth")) {
+            return limiters.get("auth");
+        }
+        return null;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * Limit, in-flight count, accepted/rejected counters and latencies per endpoint class
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        limiters.forEach((name, limiter) -> stats.put(name, limiter.getStats()));
+        return stats;
+    }
+
+    private AdaptiveConcurrencyLimiter newLimiter(int maxLimit) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, Math.min(minLimit, maxLimit), maxLimit,
+                windowMillis, minWindowSamples);
+    }
+}
@@ -0,0 +1,253 @@
+package com.coffeebeat.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-memory cache of hot image files
+ *
+ * Image bytes live in direct ByteBuffers, so the heap only holds the small
+ * wrapper objects. Entries are evicted in LRU order once the byte budget is
+ * exceeded, and files larger than the per-entry limit are never admitted
+ * (those are better served by sendfile than by taking up the budget).
+ *
+ * Entries are keyed by path and validated against the file's size and
+ * modification time, so a replaced or deleted file is never served stale.
+ */
+@Component
+public class HotImageCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotImageCache.class);
+
+    @Value("${app.image.cache.max-bytes:33554432}")
+    private long maxBytes;
+
+    @Value("${app.image.cache.max-entry-bytes:524288}")
+    private long maxEntryBytes;
+
+    // Access-ordered map gives LRU iteration order; guarded by "this"
+    private final LinkedHashMap<Path, CachedImage> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long bytesHeld;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+
+    /**
+     * Get a cached copy of the file, loading it on a miss if it is small enough
+     *
+     * @return the cached resource, or null if the file is not admitted
+     */
+    public Resource get(Path file, long length, long lastModified) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+
+        synchronized (this) {
+            CachedImage cached = entries.get(key);
+            if (cached != null && cached.matches(length, lastModified)) {
+                hits.incrementAndGet();
+                return cached;
+            }
+            if (cached != null) {
+                remove(key);
+            }
+        }
+
+        misses.incrementAndGet();
+        if (length > maxEntryBytes || length > maxBytes || length > Integer.MAX_VALUE) {
+            rejections.incrementAndGet();
+            return null;
+        }
+
+        CachedImage loaded = load(key, length, lastModified);
+        if (loaded == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            CachedImage previous = entries.put(key, loaded);
+            if (previous != null) {
+                bytesHeld -= previous.length;
+            }
+            bytesHeld += loaded.length;
+            evictToBudget();
+        }
+        return loaded;
+    }
+
+    /**
+     * Drop a file from the cache (e.g. after it was deleted)
+     */
+    public synchronized void evict(Path file) {
+        remove(file.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Cache statistics
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (this) {
+            stats.put("entries", entries.size());
+            stats.put("bytesHeld", bytesHeld);
+        }
+        stats.put("maxBytes", maxBytes);
+        stats.put("maxEntryBytes", maxEntryBytes);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", lookups > 0 ? (double) hitCount / lookups : 0.0);
+        stats.put("evictions", evictions.get());
+        stats.put("rejectedTooLarge", rejections.get());
+        return stats;
+    }
+
+    private CachedImage load(Path file, long length, long lastModified) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) length);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+        }
+        if (buffer.hasRemaining()) {
+            // File changed underneath us; serve it uncached this time
+            logger.debug("Image {} shorter than expected, not caching", file);
+            return null;
+        }
+        buffer.flip();
+        return new CachedImage(file, buffer.asReadOnlyBuffer(), length, lastModified);
+    }
+
+    private void evictToBudget() {
+        Iterator<Map.Entry<Path, CachedImage>> it = entries.entrySet().iterator();
+        while (bytesHeld > maxBytes && it.hasNext()) {
+            CachedImage eldest = it.next().getValue();
+            it.remove();
+            bytesHeld -= eldest.length;
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void remove(Path key) {
+        CachedImage removed = entries.remove(key);
+        if (removed != null) {
+            bytesHeld -= removed.length;
+        }
+    }
+
+    /**
+     * Read-only resource view over a cached direct buffer
+     */
+    static class CachedImage extends AbstractResource {
+
+        private final Path file;
+        private final ByteBuffer buffer;
+        private final long length;
+        private final long lastModified;
+
+        CachedImage(Path file, ByteBuffer buffer, long length, long lastModified) {
+            this.file = file;
+            this.buffer = buffer;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        boolean matches(long length, long lastModified) {
+            return this.length == length && this.lastModified == lastModified;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteBufferInputStream(buffer.duplicate());
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return length;
+        }
+
+        @Override
+        public long lastModified() {
+            return lastModified;
+        }
+
+        @Override
+        public String getFilename() {
+            return file.getFileName().toString();
+        }
+
+        @Override
+        public String getDescription() {
+            return "cached image [" + file + "]";
+        }
+    }
+
+    /**
+     * InputStream over a private duplicate of the cached buffer
+     */
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
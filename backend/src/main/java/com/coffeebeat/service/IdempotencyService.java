@@ -0,0 +1,349 @@
+package com.coffeebeat.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for non-repeatable POSTs
+ *
+ * The first request with a key claims it by inserting a document into
+ * idempotency_keys, runs, and stores its response there; later requests with
+ * the same key (per user) get that response back instead of running again.
+ * Duplicates arriving while the first request still runs wait for its result:
+ * on the same node through a shared future, across nodes by polling the
+ * claim. Server errors are not stored, so the client's retry runs for real.
+ * A key reused with a different request body is refused. Recent responses
+ * are also kept in a bounded in-memory LRU; keys expire after the TTL.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final String COLLECTION = "idempotency_keys";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LeaseService leaseService;
+
+    @Value("${app.idempotency.ttl:PT24H}")
+    private Duration ttl;
+
+    @Value("${app.idempotency.wait-timeout:PT30S}")
+    private Duration waitTimeout;
+
+    @Value("${app.idempotency.lock-timeout:PT2M}")
+    private Duration lockTimeout;
+
+    @Value("${app.idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    // Requests running on this node, by scoped key
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    // Access-ordered map gives LRU iteration order; guarded by "this"
+    private final LinkedHashMap<String, StoredResponse> recent = new LinkedHashMap<>(64, 0.75f, true);
+
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong waited = new AtomicLong();
+
+    @PostConstruct
+    public void createIndexes() {
+        try {
+            mongoTemplate.indexOps(COLLECTION).ensureIndex(new Index().on("createdAt", Sort.Direction.ASC).expire(ttl));
+        } catch (Exception e) {
+            logger.error("Failed to create idempotency key TTL index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Run an action at most once per user and key
+     *
+     * @param scope   whose key it is (keys of different users never collide)
+     * @param key     the client's Idempotency-Key
+     * @param request the request body; a replay must carry the same one
+     */
+    public ResponseEntity<?> execute(String scope, String key, Object request, Supplier<ResponseEntity<?>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scope + ":" + key;
+        String fingerprint = fingerprint(request);
+
+        StoredResponse cached = getRecent(id);
+        if (cached != null) {
+            replayed.incrementAndGet();
+            return cached.toResponse(fingerprint);
+        }
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            waited.incrementAndGet();
+            return await(running).toResponse(fingerprint);
+        }
+
+        try {
+            ClaimResult claim = claim(id, fingerprint);
+            if (claim.existing != null) {
+                replayed.incrementAndGet();
+                mine.complete(claim.existing);
+                return claim.existing.toResponse(fingerprint);
+            }
+
+            executed.incrementAndGet();
+            ResponseEntity<?> response = action.get();
+            StoredResponse outcome = new StoredResponse(response.getStatusCode().value(),
+                    serialize(response.getBody()), fingerprint);
+            if (outcome.status < 500) {
+                complete(id, outcome);
+            } else {
+                release(id);
+            }
+            mine.complete(outcome);
+            return response;
+        } catch (RuntimeException e) {
+            release(id);
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    /**
+     * Idempotency statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("executed", executed.get());
+        stats.put("replayed", replayed.get());
+        stats.put("waited", waited.get());
+        stats.put("inFlight", inFlight.size());
+        synchronized (this) {
+            stats.put("cached", recent.size());
+        }
+        return stats;
+    }
+
+    /**
+     * Claim the key, or wait for whoever holds it and return their response
+     */
+    private ClaimResult claim(String id, String fingerprint) {
+        Date now = new Date();
+        Document document = new Document("_id", id)
+                .append("fingerprint", fingerprint)
+                .append("state", "IN_PROGRESS")
+                .append("owner", leaseService.getNodeId())
+                .append("createdAt", now)
+                .append("lockedAt", now);
+        try {
+            mongoTemplate.insert(document, COLLECTION);
+            return new ClaimResult(null);
+        } catch (DuplicateKeyException e) {
+            // Key already seen; fall through to wait for or replay its response
+        }
+
+        long deadline = System.currentTimeMillis() + waitTimeout.toMillis();
+        while (true) {
+            Document existing = mongoTemplate.findById(id, Document.class, COLLECTION);
+            if (existing == null) {
+                // The holder failed and released it; try to take it ourselves
+                return claim(id, fingerprint);
+            }
+            if ("COMPLETED".equals(existing.getString("state"))) {
+                StoredResponse stored = new StoredResponse(existing.getInteger("status"),
+                        existing.getString("body"), existing.getString("fingerprint"));
+                putRecent(id, stored);
+                return new ClaimResult(stored);
+            }
+            if (takeOverStale(id, fingerprint)) {
+                return new ClaimResult(null);
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                return new ClaimResult(StoredResponse.inProgress(existing.getString("fingerprint")));
+            }
+            waited.incrementAndGet();
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for idempotent request", interrupted);
+            }
+        }
+    }
+
+    /**
+     * Take over a claim whose holder has not finished within the lock timeout
+     */
+    private boolean takeOverStale(String id, String fingerprint) {
+        Date now = new Date();
+        Query query = new Query(Criteria.where("_id").is(id)
+                .and("state").is("IN_PROGRESS")
+                .and("fingerprint").is(fingerprint)
+                .and("lockedAt").lt(new Date(now.getTime() - lockTimeout.toMillis())));
+        Update update = new Update().set("owner", leaseService.getNodeId()).set("lockedAt", now);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                Document.class, COLLECTION) != null;
+    }
+
+    private void complete(String id, StoredResponse outcome) {
+        Update update = new Update()
+                .set("state", "COMPLETED")
+                .set("status", outcome.status)
+                .set("body", outcome.body)
+                .set("completedAt", new Date());
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(id)), update, COLLECTION);
+        putRecent(id, outcome);
+    }
+
+    private void release(String id) {
+        try {
+            Query query = new Query(Criteria.where("_id").is(id)
+                    .and("state").is("IN_PROGRESS")
+                    .and("owner").is(leaseService.getNodeId()));
+            mongoTemplate.remove(query, COLLECTION);
+        } catch (Exception e) {
+            // Left to the lock timeout
+            logger.warn("Failed to release idempotency key {}: {}", id, e.getMessage());
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return StoredResponse.inProgress(null);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for idempotent request", e);
+        }
+    }
+
+    private synchronized StoredResponse getRecent(String id) {
+        StoredResponse stored = recent.get(id);
+        if (stored != null && stored.storedAt + ttl.toMillis() < System.currentTimeMillis()) {
+            recent.remove(id);
+            return null;
+        }
+        return stored;
+    }
+
+    private synchronized void putRecent(String id, StoredResponse stored) {
+        recent.put(id, stored);
+        if (recent.size() > cacheSize) {
+            recent.remove(recent.keySet().iterator().next());
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(serialize(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response: " + e.getMessage(), e);
+        }
+    }
+
+    private static class ClaimResult {
+
+        // Response of an earlier request with the key, or null if this request holds the claim
+        private final StoredResponse existing;
+
+        ClaimResult(StoredResponse existing) {
+            this.existing = existing;
+        }
+    }
+
+    private static class StoredResponse {
+
+        private final int status;
+        private final String body;
+        private final String fingerprint;
+        private final boolean completed;
+        private final long storedAt = System.currentTimeMillis();
+
+        StoredResponse(int status, String body, String fingerprint) {
+            this(status, body, fingerprint, true);
+        }
+
+        private StoredResponse(int status, String body, String fingerprint, boolean completed) {
+            this.status = status;
+            this.body = body;
+            this.fingerprint = fingerprint;
+            this.completed = completed;
+        }
+
+        static StoredResponse inProgress(String fingerprint) {
+            return new StoredResponse(409, "{\"error\":\"A request with this Idempotency-Key is still in progress\"}",
+                    fingerprint, false);
+        }
+
+        ResponseEntity<?> toResponse(String requestFingerprint) {
+            if (fingerprint != null && !fingerprint.equals(requestFingerprint)) {
+                return ResponseEntity.status(422).body(
+                        Map.of("error", "Idempotency-Key was already used with a different request"));
+            }
+            return ResponseEntity.status(status)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header("Idempotent-Replayed", String.valueOf(completed))
+                    .body(body);
+        }
+    }
+}
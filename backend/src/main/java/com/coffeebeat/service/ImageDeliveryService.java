@@ -0,0 +1,180 @@
+package com.coffeebeat.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Image delivery service for uploaded product images
+ *
+ * This service builds streaming responses for files in the upload directory:
+ * - Resource bodies instead of byte arrays (Range requests handled by Spring)
+ * - ETag / Last-Modified so conditional GETs end in 304 Not Modified
+ * - Long-lived immutable Cache-Control (upload filenames are write-once)
+ * - Hot small images from the off-heap {@link HotImageCache}
+ * - Tomcat sendfile for full-body responses of larger files
+ */
+@Service
+public class ImageDeliveryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDeliveryService.class);
+
+    /**
+     * Cache policy for uploaded images; a new upload always gets a new filename
+     */
+    public static final CacheControl IMMUTABLE_CACHE = CacheControl.maxAge(365, TimeUnit.DAYS)
+            .cachePublic()
+            .immutable();
+
+    // Request attributes understood by Tomcat's NIO connector (see DefaultServlet)
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private HotImageCache hotImageCache;
+
+    @Value("${app.image.sendfile-min-size:49152}")
+    private long sendfileMinSize;
+
+    /**
+     * Serve a file from the given directory
+     *
+     * Conditional and Range handling is left to Spring MVC, which evaluates
+     * If-None-Match / If-Modified-Since against the returned ETag and
+     * Last-Modified and slices Resource bodies into 206 responses.
+     */
+    public ResponseEntity<Resource> serve(Path directory, String filename, HttpServletRequest request)
+            throws IOException {
+        Path file = resolve(directory, filename);
+        if (file == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!attributes.isRegularFile()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(getMediaType(filename))
+                .cacheControl(IMMUTABLE_CACHE)
+                .eTag(etag(filename, length, lastModified))
+                .lastModified(lastModified)
+                .contentLength(length);
+
+        Resource cached = hotImageCache.get(file, length, lastModified);
+        if (cached != null) {
+            return response.body(cached);
+        }
+
+        if (useSendfile(request, length)) {
+            // Tomcat streams the file straight from the page cache once the headers are written
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, 0L);
+            request.setAttribute(SENDFILE_END_ATTR, length);
+            return response.build();
+        }
+
+        return response.body(new FileSystemResource(file));
+    }
+
+    /**
+     * Swap a file resource resolved by a static resource handler for its cached copy
+     */
+    public Resource cached(Resource resource) {
+        try {
+            if (!resource.isFile()) {
+                return resource;
+            }
+            Resource cached = hotImageCache.get(resource.getFile().toPath(),
+                    resource.contentLength(), resource.lastModified());
+            return cached != null ? cached : resource;
+        } catch (IOException e) {
+            logger.debug("Serving {} uncached: {}", resource, e.getMessage());
+            return resource;
+        }
+    }
+
+    /**
+     * ETag value for a file: the content hash for content-addressed uploads,
+     * otherwise derived from size and modification time
+     */
+    public String etag(String filename, long length, long lastModified) {
+        String hash = ImageStorageService.contentHash(filename);
+        if (hash != null) {
+            return hash;
+        }
+        return Long.toHexString(length) + "-" + Long.toHexString(lastModified);
+    }
+
+    /**
+     * ETag generator for Spring's static resource handlers
+     */
+    public String etag(Resource resource) {
+        try {
+            return etag(resource.getFilename(), resource.contentLength(), resource.lastModified());
+        } catch (IOException e) {
+            logger.debug("Could not compute ETag for {}: {}", resource, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Media type from the file extension (no filesystem probing)
+     */
+    public MediaType getMediaType(String filename) {
+        return MediaTypeFactory.getMediaType(filename).orElse(MediaType.IMAGE_JPEG);
+    }
+
+    /**
+     * Resolve a filename inside a directory, rejecting path traversal
+     */
+    private Path resolve(Path directory, String filename) {
+        if (filename == null || filename.isEmpty()) {
+            return null;
+        }
+        Path base = directory.toAbsolutePath().normalize();
+        Path file = base.resolve(filename).normalize();
+        return file.startsWith(base) && !file.equals(base) ? file : null;
+    }
+
+    /**
+     * Sendfile is only used for plain full-body GETs; conditional and Range
+     * requests go through Spring so 304 and 206 responses stay correct
+     */
+    private boolean useSendfile(HttpServletRequest request, long length) {
+        return length >= sendfileMinSize
+                && HttpMethod.GET.matches(request.getMethod())
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))
+                && request.getHeader(HttpHeaders.RANGE) == null
+                && request.getHeader(HttpHeaders.IF_NONE_MATCH) == null
+                && request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) == null;
+    }
+}
@@ -0,0 +1,200 @@
+package com.coffeebeat.service;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Mark-and-sweep collector for orphaned upload files
+ *
+ * Mark: collect every upload path referenced by a product image field or a
+ * user avatar. Sweep: delete files in the upload directory (and its
+ * products/ subdirectory) that are not referenced and are older than the
+ * grace period, so an upload whose product has not been saved yet survives.
+ */
+@Service
+public class ImageGarbageCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageGarbageCollector.class);
+
+    // URL markers mapped to the upload root; order matters, the first match wins
+    private static final String IMAGES_URL_MARKER = "/api/uploads/images/";
+    private static final String UPLOADS_URL_MARKER = "/uploads/";
+
+    private static final List<String> PRODUCT_IMAGE_FIELDS = List.of("imageUrl", "imageThumbnailUrl", "imageOptimizedUrl");
+    private static final List<String> USER_IMAGE_FIELDS = List.of("avatarUrl", "avatarThumbnailUrl");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ImageStorageService imageStorageService;
+
+    @Autowired
+    private HotImageCache hotImageCache;
+
+    @Value("${app.image.gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.image.gc.grace-period:PT24H}")
+    private Duration gracePeriod;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private volatile Map<String, Object> lastReport;
+
+    /**
+     * Nightly sweep
+     */
+    @Scheduled(cron = "${app.image.gc.cron:0 30 3 * * *}")
+    public void scheduledSweep() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            collect();
+        } catch (Exception e) {
+            logger.error("Image garbage collection failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Run one mark-and-sweep pass
+     */
+    public Map<String, Object> collect() throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Image garbage collection is already running");
+        }
+        try {
+            long started = System.currentTimeMillis();
+            Path root = imageStorageService.getUploadRoot().toAbsolutePath().normalize();
+
+            Set<String> referenced = markReferencedFiles();
+
+            long cutoff = started - gracePeriod.toMillis();
+            int scanned = 0;
+            int deleted = 0;
+            long bytesReclaimed = 0;
+
+            if (Files.isDirectory(root)) {
+                List<Path> files;
+                try (Stream<Path> walk = Files.walk(root, 2)) {
+                    files = walk.filter(Files::isRegularFile).toList();
+                }
+
+                for (Path file : files) {
+                    scanned++;
+                    String relative = root.relativize(file).toString().replace('\\', '/');
+                    if (referenced.contains(relative)) {
+                        continue;
+                    }
+
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    if (attributes.lastModifiedTime().toMillis() > cutoff) {
+                        continue;
+                    }
+
+                    if (Files.deleteIfExists(file)) {
+                        hotImageCache.evict(file);
+                        deleted++;
+                        bytesReclaimed += attributes.size();
+                        logger.debug("Deleted orphaned upload: {}", relative);
+                    }
+                }
+            }
+
+            Map<String, Object> report = new HashMap<>();
+            report.put("startedAt", LocalDateTime.now());
+            report.put("referencedFiles", referenced.size());
+            report.put("scannedFiles", scanned);
+            report.put("deletedFiles", deleted);
+            report.put("bytesReclaimed", bytesReclaimed);
+            report.put("durationMs", System.currentTimeMillis() - started);
+            lastReport = report;
+
+            logger.info("Image GC: scanned {}, deleted {}, reclaimed {} bytes", scanned, deleted, bytesReclaimed);
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Report of the most recent pass, or null if none ran yet
+     */
+    public Map<String, Object> getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Mark phase: upload paths (relative to the upload root) still referenced
+     */
+    private Set<String> markReferencedFiles() {
+        Set<String> referenced = new HashSet<>();
+        markFields("products", PRODUCT_IMAGE_FIELDS, referenced);
+        markFields("users", USER_IMAGE_FIELDS, referenced);
+        return referenced;
+    }
+
+    private void markFields(String collection, List<String> fields, Set<String> referenced) {
+        Query query = new Query();
+        fields.forEach(field -> query.fields().include(field));
+
+        for (Document document : mongoTemplate.find(query, Document.class, collection)) {
+            for (String field : fields) {
+                String path = toUploadPath(document.getString(field));
+                if (path != null) {
+                    referenced.add(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Map an image URL to its path under the upload root, or null if it is not an upload
+     */
+    private String toUploadPath(String url) {
+        if (url == null || url.isEmpty() || url.startsWith("data:")) {
+            return null;
+        }
+
+        String path;
+        int index = url.indexOf(IMAGES_URL_MARKER);
+        if (index >= 0) {
+            path = url.substring(index + IMAGES_URL_MARKER.length());
+        } else {
+            index = url.indexOf(UPLOADS_URL_MARKER);
+            if (index < 0) {
+                return null;
+            }
+            // Covers /uploads/x, /uploads/products/x and /api/products/uploads/products/x
+            path = url.substring(index + UPLOADS_URL_MARKER.length());
+        }
+
+        int end = path.indexOf('?');
+        if (end < 0) {
+            end = path.indexOf('#');
+        }
+        return end >= 0 ? path.substring(0, end) : path;
+    }
+}
@@ -0,0 +1,135 @@
+package com.coffeebeat.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed storage for uploaded images
+ *
+ * Uploads are streamed to a temporary file while their SHA-256 is computed,
+ * then moved to {@code <sha256>.<ext>}. Uploading the same bytes twice
+ * therefore resolves to the same file, and a filename always identifies
+ * its content (which is what makes immutable caching safe).
+ *
+ * Files are never deleted here: several products may share one file, so
+ * unreferenced files are reclaimed by {@link ImageGarbageCollector}.
+ */
+@Service
+public class ImageStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageStorageService.class);
+
+    /**
+     * Subdirectory used by the product image upload endpoint
+     */
+    public static final String PRODUCTS_DIR = "products";
+
+    /**
+     * Prefix of in-flight upload files
+     */
+    public static final String TEMP_PREFIX = ".upload-";
+
+    private static final Pattern CONTENT_ADDRESSED_NAME = Pattern.compile("^([0-9a-f]{64})(\\.[a-z0-9]{1,8})?$");
+    private static final Pattern EXTENSION = Pattern.compile("^\\.[A-Za-z0-9]{1,8}$");
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDir;
+
+    /**
+     * Root upload directory
+     */
+    public Path getUploadRoot() {
+        return Paths.get(uploadDir);
+    }
+
+    /**
+     * Directory for product images uploaded through the product endpoint
+     */
+    public Path getProductImageDir() {
+        return getUploadRoot().resolve(PRODUCTS_DIR);
+    }
+
+    /**
+     * Store an upload under the hash of its content
+     *
+     * @return the stored filename (relative to the target directory)
+     */
+    public String store(MultipartFile file, Path directory) throws IOException {
+        Files.createDirectories(directory);
+
+        MessageDigest digest = newDigest();
+        Path temp = Files.createTempFile(directory, TEMP_PREFIX, ".tmp");
+        try {
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            String filename = HexFormat.of().formatHex(digest.digest()) + getExtension(file.getOriginalFilename());
+            Path target = directory.resolve(filename);
+
+            if (Files.exists(target)) {
+                // Same content already stored; refresh mtime so the GC grace period covers this upload
+                Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+                logger.info("Image deduplicated: {}", filename);
+                return filename;
+            }
+
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // A concurrent upload of the same content won the race
+                logger.debug("Image {} stored concurrently", filename);
+            }
+            logger.info("Image stored: {}", filename);
+            return filename;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Content hash part of a content-addressed filename, or null
+     */
+    public static String contentHash(String filename) {
+        if (filename == null) {
+            return null;
+        }
+        Matcher matcher = CONTENT_ADDRESSED_NAME.matcher(filename);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    private String getExtension(String originalFilename) {
+        if (originalFilename == null || originalFilename.lastIndexOf('.') < 0) {
+            return "";
+        }
+        String extension = originalFilename.substring(originalFilename.lastIndexOf('.'));
+        return EXTENSION.matcher(extension).matches() ? extension.toLowerCase(Locale.ROOT) : "";
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
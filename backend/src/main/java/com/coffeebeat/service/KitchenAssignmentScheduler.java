@@ -0,0 +1,365 @@
+package com.coffeebeat.service;
+
+import com.coffeebeat.model.Order;
+import com.coffeebeat.model.User;
+import com.coffeebeat.repository.OrderRepository;
+import com.coffeebeat.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Assigns confirmed orders to chefs and ready orders to waiters
+ *
+ * The open orders (CONFIRMED, PREPARING, READY_FOR_SERVICE) are loaded once
+ * and then tracked from order save/delete events, which gives each chef's and
+ * waiter's queue length in memory and the orders still missing a chef or a
+ * waiter. Each pass reads the active roster of a role, lets the configured
+ * {@link AssignmentPolicy} pick a person per waiting order and writes the
+ * assignment conditionally, so a manual assignment or a status change made
+ * in between wins. Nobody is given more than the role's capacity; orders
+ * that find no one wait for the next pass.
+ *
+ * Only the node holding the kitchen-assignment lease runs passes, so two
+ * instances never compete for the same waiting orders.
+ *
+ * Order-to-start time (creation to PREPARING) is measured for all orders and
+ * separately for those whose chef was assigned here.
+ */
+@Service
+public class KitchenAssignmentScheduler extends AbstractMongoEventListener<Order> {
+
+    private static final Logger logger = LoggerFactory.getLogger(KitchenAssignmentScheduler.class);
+
+    // Weight of the newest sample in the recent order-to-start average
+    private static final double RECENT_WEIGHT = 0.1;
+
+    private static final String LEASE_NAME = "kitchen-assignment";
+
+    @Value("${app.kitchen.assignment.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.kitchen.assignment.policy:least-loaded}")
+    private String policyName;
+
+    @Value("${app.kitchen.assignment.chef-capacity:4}")
+    private int chefCapacity;
+
+    @Value("${app.kitchen.assignment.waiter-capacity:6}")
+    private int waiterCapacity;
+
+    @Value("${app.kitchen.assignment.lease-ttl:PT10S}")
+    private Duration leaseTtl;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private LeaseService leaseService;
+
+    @Autowired
+    private List<AssignmentPolicy> policies;
+
+    private AssignmentPolicy policy;
+
+    // Guarded by "this"
+    private final Map<String, TrackedOrder> openOrders = new HashMap<>();
+    private final Set<String> needingChef = new LinkedHashSet<>();
+    private final Set<String> needingWaiter = new LinkedHashSet<>();
+    private final Set<String> autoAssignedToChef = new HashSet<>();
+    private final StartTimes allStarts = new StartTimes();
+    private final StartTimes autoAssignedStarts = new StartTimes();
+
+    private final AtomicLong chefAssignments = new AtomicLong();
+    private final AtomicLong waiterAssignments = new AtomicLong();
+    private final AtomicLong lostRaces = new AtomicLong();
+
+    // Orders the last pass left waiting for lack of capacity, per pool
+    private final Map<String, Integer> deferred = new ConcurrentHashMap<>();
+
+    private volatile boolean leader;
+
+    @PostConstruct
+    public void selectPolicy() {
+        policy = policies.stream()
+                .filter(candidate -> candidate.getName().equals(policyName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown kitchen assignment policy: " + policyName));
+    }
+
+    /**
+     * Load the open orders
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Order> open = orderRepository.findByStatusIn(List.of(Order.OrderStatus.CONFIRMED,
+                Order.OrderStatus.PREPARING, Order.OrderStatus.READY_FOR_SERVICE));
+        synchronized (this) {
+            open.forEach(order -> track(order, false));
+        }
+        logger.info("Kitchen assignment loaded {} open orders; policy {}, {}", open.size(), policy.getName(),
+                enabled ? "enabled" : "disabled");
+    }
+
+    /**
+     * Assign the orders waiting for a chef or a waiter
+     */
+    @Scheduled(fixedDelayString = "${app.kitchen.assignment.interval-ms:2000}")
+    public void assignWaiting() {
+        if (!enabled) {
+            return;
+        }
+        if (!leaseService.tryAcquire(LEASE_NAME, leaseTtl)) {
+            if (leader) {
+                logger.info("Lost kitchen assignment to another node");
+            }
+            leader = false;
+            deferred.clear();
+            return;
+        }
+        if (!leader) {
+            logger.info("Node {} is now assigning kitchen orders", leaseService.getNodeId());
+        }
+        leader = true;
+        assign("chef", "ROLE_CHEF", Order.OrderStatus.CONFIRMED, "assignedChefId", chefCapacity);
+        assign("waiter", "ROLE_WAITER", Order.OrderStatus.READY_FOR_SERVICE, "assignedWaiterId", waiterCapacity);
+    }
+
+    /**
+     * Queue lengths per staff member, assignment counters and order-to-start times
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("policy", policy.getName());
+        stats.put("chefAssignments", chefAssignments.get());
+        stats.put("waiterAssignments", waiterAssignments.get());
+        stats.put("leader", leader);
+        stats.put("deferred", new HashMap<>(deferred));
+        stats.put("lostRaces", lostRaces.get());
+        synchronized (this) {
+            stats.put("openOrders", openOrders.size());
+            stats.put("waitingForChef", needingChef.size());
+            stats.put("waitingForWaiter", needingWaiter.size());
+            stats.put("chefQueues", queueLengths(openOrders.values().stream()
+                    .filter(TrackedOrder::holdsChef).map(order -> order.chefId).toList()));
+            stats.put("waiterQueues", queueLengths(openOrders.values().stream()
+                    .filter(TrackedOrder::holdsWaiter).map(order -> order.waiterId).toList()));
+            stats.put("orderToStart", allStarts.toMap());
+            stats.put("orderToStartAutoAssigned", autoAssignedStarts.toMap());
+        }
+        return stats;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Order> event) {
+        synchronized (this) {
+            track(event.getSource(), true);
+        }
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Order> event) {
+        Object id = event.getSource().get("_id");
+        if (id instanceof String || id instanceof ObjectId) {
+            synchronized (this) {
+                forget(id.toString());
+            }
+        }
+    }
+
+    private void assign(String pool, String role, Order.OrderStatus status, String field, int capacity) {
+        List<String> waiting;
+        synchronized (this) {
+            waiting = new ArrayList<>(status == Order.OrderStatus.CONFIRMED ? needingChef : needingWaiter);
+        }
+        if (waiting.isEmpty()) {
+            deferred.put(pool, 0);
+            return;
+        }
+
+        Map<String, Integer> queueLengths = new LinkedHashMap<>();
+        for (User user : userRepository.findByRoleAndIsActiveTrue(role)) {
+            queueLengths.put(user.getId(), 0);
+        }
+        synchronized (this) {
+            for (TrackedOrder order : openOrders.values()) {
+                String staffId = status == Order.OrderStatus.CONFIRMED
+                        ? (order.holdsChef() ? order.chefId : null)
+                        : (order.holdsWaiter() ? order.waiterId : null);
+                if (staffId != null) {
+                    queueLengths.computeIfPresent(staffId, (key, length) -> length + 1);
+                }
+            }
+        }
+
+        for (int i = 0; i < waiting.size(); i++) {
+            String orderId = waiting.get(i);
+            String staffId = policy.choose(pool, queueLengths, capacity);
+            if (staffId == null) {
+                deferred.put(pool, waiting.size() - i);
+                logger.debug("No {} has capacity; {} orders wait", pool, waiting.size() - i);
+                return;
+            }
+
+            Order assigned = orderRepository.assignIfUnassigned(orderId, status, field, staffId, LocalDateTime.now());
+            if (assigned == null) {
+                // Assigned by hand, moved on or gone; its events have updated (or will update) the tracking
+                lostRaces.incrementAndGet();
+                synchronized (this) {
+                    (status == Order.OrderStatus.CONFIRMED ? needingChef : needingWaiter).remove(orderId);
+                }
+                continue;
+            }
+
+            queueLengths.merge(staffId, 1, Integer::sum);
+            if (status == Order.OrderStatus.CONFIRMED) {
+                chefAssignments.incrementAndGet();
+                synchronized (this) {
+                    autoAssignedToChef.add(orderId);
+                }
+            } else {
+                waiterAssignments.incrementAndGet();
+            }
+            logger.info("Order {} auto-assigned to {} {}", orderId, pool, staffId);
+
+            try {
+                notificationService.notifyStaffAssignment(pool, staffId, assigned);
+                notificationService.notifyOrderStatusUpdate(assigned);
+            } catch (Exception e) {
+                logger.error("Failed to broadcast assignment of order {}: {}", orderId, e.getMessage());
+            }
+        }
+        deferred.put(pool, 0);
+    }
+
+    private void track(Order order, boolean measure) {
+        String id = order.getId();
+        if (id == null) {
+            return;
+        }
+        TrackedOrder previous = openOrders.get(id);
+        if (previous != null && previous.version != null && order.getVersion() != null
+                && previous.version > order.getVersion()) {
+            return;
+        }
+
+        if (measure && order.getStatus() == Order.OrderStatus.PREPARING
+                && (previous == null || previous.status != Order.OrderStatus.PREPARING)
+                && order.getCreatedAt() != null) {
+            double seconds = Duration.between(order.getCreatedAt(), LocalDateTime.now()).toMillis() / 1000.0;
+            allStarts.add(seconds);
+            if (autoAssignedToChef.contains(id)) {
+                autoAssignedStarts.add(seconds);
+            }
+        }
+
+        needingChef.remove(id);
+        needingWaiter.remove(id);
+        Order.OrderStatus status = order.getStatus();
+        if (status != Order.OrderStatus.CONFIRMED && status != Order.OrderStatus.PREPARING
+                && status != Order.OrderStatus.READY_FOR_SERVICE) {
+            forget(id);
+            return;
+        }
+
+        openOrders.put(id, new TrackedOrder(status, order.getAssignedChefId(), order.getAssignedWaiterId(),
+                order.getVersion()));
+        if (status == Order.OrderStatus.CONFIRMED && order.getAssignedChefId() == null) {
+            needingChef.add(id);
+        } else if (status == Order.OrderStatus.READY_FOR_SERVICE && order.getAssignedWaiterId() == null) {
+            needingWaiter.add(id);
+        }
+    }
+
+    private void forget(String orderId) {
+        openOrders.remove(orderId);
+        needingChef.remove(orderId);
+        needingWaiter.remove(orderId);
+        autoAssignedToChef.remove(orderId);
+    }
+
+    private static Map<String, Long> queueLengths(List<String> staffIds) {
+        Map<String, Long> lengths = new HashMap<>();
+        staffIds.forEach(staffId -> lengths.merge(staffId, 1L, Long::sum));
+        return lengths;
+    }
+
+    private static class TrackedOrder {
+
+        private final Order.OrderStatus status;
+        private final String chefId;
+        private final String waiterId;
+        private final Long version;
+
+        TrackedOrder(Order.OrderStatus status, String chefId, String waiterId, Long version) {
+            this.status = status;
+            this.chefId = chefId;
+            this.waiterId = waiterId;
+            this.version = version;
+        }
+
+        // Counts towards its chef's queue until it is ready
+        boolean holdsChef() {
+            return chefId != null && status != Order.OrderStatus.READY_FOR_SERVICE;
+        }
+
+        // Counts towards its waiter's queue until it is served
+        boolean holdsWaiter() {
+            return waiterId != null && status == Order.OrderStatus.READY_FOR_SERVICE;
+        }
+    }
+
+    /**
+     * Mean and recent (exponentially weighted) order-to-start time in seconds
+     */
+    private static class StartTimes {
+
+        private long count;
+        private double totalSeconds;
+        private double recentSeconds;
+
+        void add(double seconds) {
+            recentSeconds = count == 0 ? seconds : recentSeconds + RECENT_WEIGHT * (seconds - recentSeconds);
+            count++;
+            totalSeconds += seconds;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("count", count);
+            map.put("meanSeconds", count > 0 ? totalSeconds / count : 0.0);
+            map.put("recentMeanSeconds", recentSeconds);
+            return map;
+        }
+    }
+}
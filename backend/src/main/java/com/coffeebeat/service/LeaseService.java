@@ -0,0 +1,78 @@
+package com.coffeebeat.service;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Lease-based leader election on a Mongo collection
+ *
+ * A lease is one document per name holding its owner and expiry. A node
+ * holds the lease if it owns the document or the previous owner let it
+ * expire; acquiring and renewing is the same conditional upsert, so only
+ * one node can win. Nodes must renew well before the TTL runs out.
+ */
+@Service
+public class LeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaseService.class);
+
+    private static final String COLLECTION = "leases";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    /**
+     * Acquire or renew a lease
+     *
+     * @return true if this node holds the lease for the next ttl
+     */
+    public boolean tryAcquire(String name, Duration ttl) {
+        Date now = new Date();
+        Query query = new Query(Criteria.where("_id").is(name)
+                .orOperator(Criteria.where("owner").is(nodeId), Criteria.where("expiresAt").lt(now)));
+        Update update = new Update()
+                .set("owner", nodeId)
+                .set("expiresAt", new Date(now.getTime() + ttl.toMillis()))
+                .set("renewedAt", now);
+
+        try {
+            Document lease = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, COLLECTION);
+            return lease != null && nodeId.equals(lease.getString("owner"));
+        } catch (DuplicateKeyException e) {
+            // Another node holds an unexpired lease, so the upsert collided with its document
+            return false;
+        } catch (Exception e) {
+            logger.warn("Could not acquire lease {}: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Give up a lease held by this node
+     */
+    public void release(String name) {
+        Query query = new Query(Criteria.where("_id").is(name).and("owner").is(nodeId));
+        mongoTemplate.updateFirst(query, new Update().set("expiresAt", new Date(0)), COLLECTION);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
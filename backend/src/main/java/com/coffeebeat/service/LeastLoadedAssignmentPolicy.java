@@ -0,0 +1,45 @@
+package com.coffeebeat.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Give the order to whoever has the shortest queue
+ *
+ * Ties go to the one who was picked least recently, so equally loaded staff
+ * take turns instead of the first in the roster getting every order.
+ */
+@Component
+public class LeastLoadedAssignmentPolicy implements AssignmentPolicy {
+
+    private final AtomicLong picks = new AtomicLong();
+    private final Map<String, Long> lastPicked = new ConcurrentHashMap<>();
+
+    @Override
+    public String getName() {
+        return "least-loaded";
+    }
+
+    @Override
+    public String choose(String pool, Map<String, Integer> queueLengths, int capacity) {
+        String chosen = null;
+        int chosenLength = capacity;
+        long chosenLastPick = Long.MAX_VALUE;
+        for (Map.Entry<String, Integer> entry : queueLengths.entrySet()) {
+            int length = entry.getValue();
+            long lastPick = lastPicked.getOrDefault(entry.getKey(), 0L);
+            if (length < chosenLength || (length == chosenLength && chosen != null && lastPick < chosenLastPick)) {
+                chosen = entry.getKey();
+                chosenLength = length;
+                chosenLastPick = lastPick;
+            }
+        }
+        if (chosen != null) {
+            lastPicked.put(chosen, picks.incrementAndGet());
+        }
+        return chosen;
+    }
+}
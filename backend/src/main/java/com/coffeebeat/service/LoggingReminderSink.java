@@ -0,0 +1,30 @@
+package com.coffeebeat.service;
+
+import com.coffeebeat.model.Booking;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local reminder sink that logs what an email / SMS gateway would send
+ */
+@Component
+@ConditionalOnProperty(name = "app.reminders.local-sink.enabled", havingValue = "true", matchIfMissing = true)
+public class LoggingReminderSink implements ReminderSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingReminderSink.class);
+
+    @Override
+    public void sendReminder(Booking booking, String message) {
+        if (booking.getCustomerEmail() != null) {
+            logger.info("[email stand-in] to {}: {}", booking.getCustomerEmail(), message);
+        }
+        if (booking.getCustomerPhone() != null) {
+            logger.info("[sms stand-in] to {}: {}", booking.getCustomerPhone(), message);
+        }
+        if (booking.getCustomerEmail() == null && booking.getCustomerPhone() == null) {
+            logger.info("[reminder] user {}: {}", booking.getUserId(), message);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.coffeebeat.service;
 
+import com.coffeebeat.model.Booking;
 import com.coffeebeat.model.Order;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -7,6 +8,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class NotificationService {
 
@@ -28,8 +33,74 @@ public class NotificationService {
         messagingTemplate.convertAndSend("/topic/orders/" + order.getId(), order);
     }
 
-    public void notifyTableUpdate(String tableNumber) {
-        // Potential future use for live table status
-        messagingTemplate.convertAndSend("/topic/tables", tableNumber);
+    /**
+     * One message for a batch of orders moved to the same status, plus the per-order topics
+     */
+    public void notifyOrderStatusBatch(Order.OrderStatus status, List<Order> orders) {
+        logger.info("Broadcasting batch update: {} orders -> {}", orders.size(), status);
+
+        Map<String, Object> notification = new HashMap<>();
+        notification.put("type", "ORDER_STATUS_BATCH");
+        notification.put("status", status);
+        notification.put("orders", orders);
+        messagingTemplate.convertAndSend("/topic/orders/batch", notification);
+
+        for (Order order : orders) {
+            messagingTemplate.convertAndSend("/topic/orders/" + order.getId(), order);
+        }
+    }
+
+    public void notifyUser(String userId, Map<String, Object> notification) {
+        messagingTemplate.convertAndSend("/queue/user/" + userId + "/notifications", notification);
+    }
+
+    /**
+     * Tell a chef or waiter ("chef" / "waiter") that an order was assigned to them
+     */
+    public void notifyStaffAssignment(String pool, String staffId, Order order) {
+        logger.info("Notifying {} {} of assigned order {}", pool, staffId, order.getId());
+
+        Map<String, Object> notification = new HashMap<>();
+        notification.put("type", "ORDER_ASSIGNED");
+        notification.put("orderId", order.getId());
+        notification.put("status", order.getStatus());
+        notification.put("tableBookingId", order.getTableBookingId());
+        messagingTemplate.convertAndSend("/queue/" + pool + "/" + staffId + "/notifications", notification);
+    }
+
+    public void notifyBookingReminder(Booking booking, String message) {
+        logger.info("Sending reminder for booking: {}", booking.getId());
+
+        Map<String, Object> notification = new HashMap<>();
+        notification.put("type", "BOOKING_REMINDER");
+        notification.put("message", message);
+        notification.put("bookingId", booking.getId());
+        notification.put("tableNumber", booking.getTableNumber());
+        notification.put("timeSlot", booking.getTimeSlot());
+        notifyUser(booking.getUserId(), notification);
+    }
+
+    public void notifyOrderIntake(Map<String, Object> ticket) {
+        logger.info("Sending order intake outcome: {} is {}", ticket.get("ticketId"), ticket.get("status"));
+
+        Map<String, Object> notification = new HashMap<>(ticket);
+        notification.put("type", "ORDER_INTAKE");
+        messagingTemplate.convertAndSend("/topic/order-intake/" + ticket.get("ticketId"), notification);
+    }
+
+    public void notifyProductionBoard(Map<String, Object> delta) {
+        logger.debug("Sending production board update #{}", delta.get("sequence"));
+
+        Map<String, Object> notification = new HashMap<>(delta);
+        notification.put("type", "PRODUCTION_BOARD_DELTA");
+        messagingTemplate.convertAndSend("/topic/production-board", notification);
+    }
+
+    public void notifyTableUpdate(Map<String, Object> tableState) {
+        logger.debug("Sending table update: {} is {}", tableState.get("tableNumber"), tableState.get("state"));
+
+        Map<String, Object> notification = new HashMap<>(tableState);
+        notification.put("type", "TABLE_UPDATE");
+        messagingTemplate.convertAndSend("/topic/tables", notification);
     }
 }
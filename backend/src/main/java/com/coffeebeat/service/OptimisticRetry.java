@@ -0,0 +1,109 @@
+package com.coffeebeat.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded retry for read-modify-write operations on versioned documents
+ *
+ * The operation is re-run from its read whenever the save hits a version
+ * conflict, up to a fixed number of attempts, sleeping a random time up to
+ * an exponentially growing cap in between (full jitter) so competing
+ * writers spread out instead of colliding again. Calls, conflicts and
+ * exhausted retries are counted per operation name.
+ */
+@Component
+public class OptimisticRetry {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetry.class);
+
+    @Value("${app.concurrency.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.concurrency.retry.base-delay-ms:5}")
+    private long baseDelayMillis;
+
+    @Value("${app.concurrency.retry.max-delay-ms:200}")
+    private long maxDelayMillis;
+
+    private final Map<String, OperationStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Run an operation, re-running it on optimistic locking conflicts
+     *
+     * @throws OptimisticLockingFailureException when every attempt conflicted
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+        OperationStats operationStats = stats.computeIfAbsent(operation, name -> new OperationStats());
+        operationStats.calls.incrementAndGet();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                operationStats.conflicts.incrementAndGet();
+                if (attempt >= maxAttempts) {
+                    operationStats.exhausted.incrementAndGet();
+                    logger.warn("{} still conflicting after {} attempts", operation, attempt);
+                    throw e;
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Run an operation without a result, re-running it on optimistic locking conflicts
+     */
+    public void run(String operation, Runnable action) {
+        execute(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Conflict counters per operation
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new TreeMap<>();
+        stats.forEach((operation, operationStats) -> {
+            long calls = operationStats.calls.get();
+            long conflicts = operationStats.conflicts.get();
+            result.put(operation, Map.of(
+                    "calls", calls,
+                    "conflicts", conflicts,
+                    "exhausted", operationStats.exhausted.get(),
+                    "conflictRate", calls > 0 ? (double) conflicts / calls : 0.0));
+        });
+        return result;
+    }
+
+    private void backOff(int attempt) {
+        long cap = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt, 20));
+        long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying", e);
+        }
+    }
+
+    private static class OperationStats {
+
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong conflicts = new AtomicLong();
+        private final AtomicLong exhausted = new AtomicLong();
+    }
+}
@@ -0,0 +1,314 @@
+package com.coffeebeat.service;
+
+import com.coffeebeat.dto.CreateOrderRequest;
+import com.coffeebeat.model.Order;
+import com.coffeebeat.model.OrderIntake;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous order intake
+ *
+ * With async intake on, POST /api/orders only checks the request's shape and
+ * inserts it into order_intake, answering 202 with the ticket id; product
+ * checks, stock updates, the order insert and the broadcast happen later on
+ * a pool of intake workers, so the request path costs one insert however
+ * busy the kitchen is. Workers claim the oldest queued ticket with a
+ * conditional update, so tickets start in arrival order and every ticket is
+ * processed by one worker across all nodes. A ticket claimed by a node that
+ * died is picked up again after the claim timeout; the order is inserted
+ * under the ticket id, so a second run finds it instead of duplicating it.
+ * Each outcome is pushed to /topic/order-intake/{ticketId}.
+ */
+@Service
+public class OrderIntakeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIntakeService.class);
+
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private LeaseService leaseService;
+
+    @Value("${app.orders.intake.async:false}")
+    private boolean async;
+
+    @Value("${app.orders.intake.workers:4}")
+    private int workerCount;
+
+    @Value("${app.orders.intake.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.orders.intake.claim-timeout:PT2M}")
+    private Duration claimTimeout;
+
+    @Value("${app.orders.intake.idle-poll-ms:1000}")
+    private long idlePollMillis;
+
+    // One permit per enqueued ticket wakes an idle worker without waiting for the poll
+    private final Semaphore wakeups = new Semaphore(0);
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!async) {
+            return;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "order-intake-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::work);
+        }
+        logger.info("Order intake started with {} workers", workerCount);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (workers == null) {
+            return;
+        }
+        running = false;
+        wakeups.release(workerCount);
+        workers.shutdown();
+        // A ticket still in flight when this gives up is reclaimed after the claim timeout
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queue an order request and return its ticket
+     */
+    public OrderIntake enqueue(CreateOrderRequest request, String userIdentifier) {
+        validate(request);
+        OrderIntake intake = mongoTemplate.insert(new OrderIntake(userIdentifier, request));
+        enqueued.incrementAndGet();
+        wakeups.release();
+        return intake;
+    }
+
+    public OrderIntake getTicket(String ticketId) {
+        return mongoTemplate.findById(ticketId, OrderIntake.class);
+    }
+
+    /**
+     * Client view of a ticket
+     */
+    public Map<String, Object> toTicket(OrderIntake intake) {
+        Map<String, Object> ticket = new HashMap<>();
+        ticket.put("ticketId", intake.getId());
+        ticket.put("status", intake.getStatus());
+        ticket.put("orderId", intake.getOrderId());
+        ticket.put("error", intake.getError());
+        ticket.put("createdAt", intake.getCreatedAt());
+        ticket.put("processedAt", intake.getProcessedAt());
+        return ticket;
+    }
+
+    /**
+     * Intake statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("async", async);
+        stats.put("workers", async ? workerCount : 0);
+        stats.put("queued", mongoTemplate.count(
+                new Query(Criteria.where("status").is(OrderIntake.IntakeStatus.QUEUED)), OrderIntake.class));
+        stats.put("enqueued", enqueued.get());
+        stats.put("accepted", accepted.get());
+        stats.put("rejected", rejected.get());
+        stats.put("failed", failed.get());
+        return stats;
+    }
+
+    /**
+     * Checks that need no database; everything else is up to the worker
+     */
+    private void validate(CreateOrderRequest request) {
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Order items cannot be empty");
+        }
+        for (CreateOrderRequest.OrderItemRequest item : request.getItems()) {
+            if (item.getProductId() == null || item.getProductId().isBlank()) {
+                throw new IllegalArgumentException("Product ID is required");
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive for product: " + item.getProductId());
+            }
+        }
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                OrderIntake intake = claimNext();
+                if (intake == null) {
+                    wakeups.tryAcquire(idlePollMillis, TimeUnit.MILLISECONDS);
+                } else {
+                    process(intake);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Order intake worker error: {}", e.getMessage());
+                try {
+                    Thread.sleep(idlePollMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Claim the oldest queued ticket, or one whose claim has timed out
+     */
+    private OrderIntake claimNext() {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("status").is(OrderIntake.IntakeStatus.QUEUED),
+                Criteria.where("status").is(OrderIntake.IntakeStatus.PROCESSING)
+                        .and("claimedAt").lt(now.minus(claimTimeout))))
+                .with(Sort.by(Sort.Direction.ASC, "id"));
+        Update update = new Update()
+                .set("status", OrderIntake.IntakeStatus.PROCESSING)
+                .set("claimedBy", leaseService.getNodeId())
+                .set("claimedAt", now)
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(query, update, RETURN_NEW, OrderIntake.class);
+    }
+
+    private void process(OrderIntake intake) {
+        // A reclaimed ticket may already have its order; placing it again
+        // would fail on stock the first run took, not on the duplicate id
+        if (intake.getAttempts() > 1 && orderService.getOrderById(intake.getId()) != null) {
+            finish(intake, OrderIntake.IntakeStatus.ACCEPTED, intake.getId(), null);
+            return;
+        }
+        if (intake.getAttempts() > maxAttempts) {
+            finishUnlessPlaced(intake, OrderIntake.IntakeStatus.FAILED,
+                    "Gave up after " + maxAttempts + " attempts");
+            return;
+        }
+
+        try {
+            Order order = orderService.createOrderFromDto(intake.getRequest(), intake.getUserIdentifier(),
+                    intake.getId());
+            finish(intake, OrderIntake.IntakeStatus.ACCEPTED, order.getId(), null);
+        } catch (DuplicateKeyException e) {
+            if (orderService.getOrderById(intake.getId()) == null) {
+                throw e;
+            }
+            // An earlier run placed the order but did not get to record it
+            finish(intake, OrderIntake.IntakeStatus.ACCEPTED, intake.getId(), null);
+        } catch (IllegalArgumentException e) {
+            finishUnlessPlaced(intake, OrderIntake.IntakeStatus.REJECTED, e.getMessage());
+        } catch (Exception e) {
+            if (intake.getAttempts() >= maxAttempts) {
+                logger.error("Order intake {} failed: {}", intake.getId(), e.getMessage(), e);
+                finishUnlessPlaced(intake, OrderIntake.IntakeStatus.FAILED, "Failed to create order");
+                return;
+            }
+            logger.warn("Order intake {} attempt {} failed, requeueing: {}",
+                    intake.getId(), intake.getAttempts(), e.getMessage());
+            Query query = new Query(Criteria.where("id").is(intake.getId())
+                    .and("status").is(OrderIntake.IntakeStatus.PROCESSING));
+            mongoTemplate.updateFirst(query, new Update()
+                    .set("status", OrderIntake.IntakeStatus.QUEUED)
+                    .unset("claimedBy")
+                    .unset("claimedAt"), OrderIntake.class);
+        }
+    }
+
+    /**
+     * Finish a ticket as rejected or failed, unless its order exists after all
+     */
+    private void finishUnlessPlaced(OrderIntake intake, OrderIntake.IntakeStatus status, String error) {
+        if (orderService.getOrderById(intake.getId()) != null) {
+            finish(intake, OrderIntake.IntakeStatus.ACCEPTED, intake.getId(), null);
+        } else {
+            finish(intake, status, null, error);
+        }
+    }
+
+    private void finish(OrderIntake intake, OrderIntake.IntakeStatus status, String orderId, String error) {
+        Query query = new Query(Criteria.where("id").is(intake.getId())
+                .and("status").is(OrderIntake.IntakeStatus.PROCESSING));
+        Update update = new Update()
+                .set("status", status)
+                .set("orderId", orderId)
+                .set("error", error)
+                .set("processedAt", LocalDateTime.now());
+        OrderIntake finished = mongoTemplate.findAndModify(query, update, RETURN_NEW, OrderIntake.class);
+        if (finished == null) {
+            // Another worker finished it after reclaiming it
+            return;
+        }
+
+        switch (status) {
+            case ACCEPTED:
+                accepted.incrementAndGet();
+                break;
+            case REJECTED:
+                rejected.incrementAndGet();
+                break;
+            default:
+                failed.incrementAndGet();
+                break;
+        }
+
+        try {
+            notificationService.notifyOrderIntake(toTicket(finished));
+        } catch (Exception e) {
+            logger.error("Failed to send intake outcome for {}: {}", intake.getId(), e.getMessage());
+        }
+    }
+}
@@ -6,20 +6,29 @@ import com.coffeebeat.model.User;
 import com.coffeebeat.repository.OrderRepository;
 import com.coffeebeat.repository.ProductRepository;
 import com.coffeebeat.repository.UserRepository;
+import com.mongodb.MongoException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * Order service for managing customer orders
@@ -50,7 +59,30 @@ public class OrderService {
     @Autowired
     private NotificationService notificationService;
 
-    @Transactional
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.orders.placement-mode:conditional}")
+    private String placementMode;
+
+    @Value("${app.orders.transaction.max-attempts:3}")
+    private int maxTransactionAttempts;
+
+    @Value("${app.orders.bulk.max-size:100}")
+    private int maxBulkSize;
+
+    private final AtomicLong transactionsCommitted = new AtomicLong();
+    private final AtomicLong transactionsFailed = new AtomicLong();
+    private final AtomicLong transientRetries = new AtomicLong();
+
+    /**
+     * Create an order, taking its items from stock
+     *
+     * In "transactional" placement mode the stock decrements and the order
+     * insert commit or abort together in one multi-document transaction. In
+     * the default "conditional" mode each decrement is a conditional update
+     * on its own and stock already taken is given back if a later step fails.
+     */
     public Order createOrder(Order order, String userId) {
         logger.info("Creating order for userId: {} with {} items", userId,
                 order.getItems() != null ? order.getItems().size() : 0);
@@ -59,15 +91,15 @@ public class OrderService {
         // Validate items and stock atomically
         validateOrderItemsAtomic(order.getItems());
 
-        // Decrease stock atomically
-        if (order.getItems() != null) {
-            for (Order.OrderItem item : order.getItems()) {
-                // Use atomic stock decrease
-                productService.decreaseStockAtomic(item.getProductId(), item.getQuantity());
-            }
-        }
-
-        Order savedOrder = orderRepository.save(order);
+        String presetId = order.getId();
+        Order savedOrder = isTransactionalPlacement()
+                ? inTransaction("place", () -> {
+                    // An aborted attempt may have assigned these; the retry must insert again
+                    order.setId(presetId);
+                    order.setVersion(null);
+                    return takeStockAndInsert(order, new ArrayList<>());
+                })
+                : placeWithConditionalUpdates(order);
 
         // Populate customer name
         populateCustomerName(savedOrder);
@@ -84,8 +116,16 @@ public class OrderService {
         return savedOrder;
     }
 
-    @Transactional
     public Order createOrderFromDto(com.coffeebeat.dto.CreateOrderRequest request, String userIdentifier) {
+        return createOrderFromDto(request, userIdentifier, null);
+    }
+
+    /**
+     * Create an order under a given id; inserting the same id twice fails
+     * with a DuplicateKeyException instead of creating a second order
+     */
+    public Order createOrderFromDto(com.coffeebeat.dto.CreateOrderRequest request, String userIdentifier,
+            String orderId) {
         String userId = userIdentifier;
 
         // Logic for user resolution (kept for reference but userId passed to
@@ -99,6 +139,7 @@ public class OrderService {
         }
 
         Order order = new Order();
+        order.setId(orderId);
         order.setUserId(userId);
         order.setNotes(request.getNotes());
         order.setTableBookingId(request.getTableBookingId());
@@ -268,8 +309,13 @@ public class OrderService {
 
     /**
      * Update order status
+     *
+     * The transition is checked against the role's transition table and
+     * applied as one compare-and-set on the status the caller saw, touching
+     * only the status and the fields that go with it. If someone else moved
+     * the order first, nothing is written and the conflict names the status
+     * the order is actually in.
      */
-    @Transactional
     public Order updateOrderStatus(String orderId, Order.OrderStatus newStatus, String chefId, String waiterId,
             String userEmail) {
         logger.info("Updating order status: {} to {} by {}", orderId, newStatus, userEmail);
@@ -277,7 +323,6 @@ public class OrderService {
         // Use a different access check for status updates (chefs can update orders)
         Order order = findOrderForStatusUpdate(orderId, userEmail);
 
-        // Validate status transition based on user role
         Optional<User> userOpt = userRepository.findByEmail(userEmail);
         if (userOpt.isEmpty()) {
             throw new IllegalArgumentException("User not found: " + userEmail);
@@ -285,47 +330,22 @@ public class OrderService {
 
         User user = userOpt.get();
         String userRole = user.getRole();
+        Order.OrderStatus currentStatus = order.getStatus();
 
-        // Validate status transition
-        validateStatusTransition(order.getStatus(), newStatus, userRole);
+        OrderTransitions.check(userRole, currentStatus, newStatus);
 
-        // Update status
-        switch (newStatus) {
-            case CONFIRMED:
-                order.confirm();
-                break;
-            case PREPARING:
-                order.startPreparation();
-                if (chefId != null) {
-                    order.assignChef(chefId);
-                } else if ("ROLE_CHEF".equals(userRole)) {
-                    order.assignChef(user.getId());
-                }
-                break;
-            case READY_FOR_SERVICE:
-                order.markReadyForService();
-                break;
-            case SERVED:
-                order.serve();
-                if (waiterId != null) {
-                    order.assignWaiter(waiterId);
-                } else if ("ROLE_WAITER".equals(userRole)) {
-                    order.assignWaiter(user.getId());
-                }
-                break;
-            case COMPLETED:
-                order.complete();
-                break;
-            case CANCELLED:
-                order.cancel();
-                // Restore stock for cancelled orders
-                restoreStock(order.getItems());
-                break;
-            default:
-                throw new IllegalArgumentException("Invalid status transition");
-        }
+        Map<String, Object> fields = transitionFields(newStatus, chefId, waiterId, user);
 
-        Order updatedOrder = orderRepository.save(order);
+        Order updatedOrder;
+        if (newStatus == Order.OrderStatus.CANCELLED) {
+            updatedOrder = cancelAndRestock(orderId, currentStatus, fields);
+        } else {
+            updatedOrder = orderRepository.transitionStatus(orderId, currentStatus, newStatus, fields,
+                    LocalDateTime.now());
+            if (updatedOrder == null) {
+                throw transitionConflict(orderId, currentStatus, newStatus);
+            }
+        }
 
         // Populate customer name before broadcasting
         populateCustomerName(updatedOrder);
@@ -342,10 +362,120 @@ public class OrderService {
         return updatedOrder;
     }
 
+    /**
+     * Move a batch of orders to the same status
+     *
+     * The caller is looked up once, all orders are read with one query, and
+     * every allowed transition goes out in a single bulk write whose filter
+     * per order is its status and version as read. Orders that are missing,
+     * may not make the transition, or changed in between are reported as
+     * failed and left untouched; the rest are broadcast as one batch.
+     *
+     * @return one result per distinct order id, in request order
+     */
+    public List<Map<String, Object>> bulkUpdateOrderStatus(List<String> orderIds, Order.OrderStatus newStatus,
+            String chefId, String waiterId, String userEmail) {
+        if (newStatus == Order.OrderStatus.CANCELLED) {
+            throw new IllegalArgumentException("Orders cannot be cancelled in bulk");
+        }
+        Set<String> ids = new LinkedHashSet<>(orderIds);
+        if (ids.size() > maxBulkSize) {
+            throw new IllegalArgumentException("At most " + maxBulkSize + " orders can be updated at once");
+        }
+        logger.info("Bulk updating {} orders to {} by {}", ids.size(), newStatus, userEmail);
+
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + userEmail));
+
+        Map<String, Order> found = new HashMap<>();
+        orderRepository.findAllById(ids).forEach(order -> found.put(order.getId(), order));
+
+        Map<String, String> errors = new HashMap<>();
+        List<Order> eligible = new ArrayList<>();
+        for (String id : ids) {
+            Order order = found.get(id);
+            if (order == null) {
+                errors.put(id, "Order not found: " + id);
+                continue;
+            }
+            if ("ROLE_CUSTOMER".equals(user.getRole()) && !user.getId().equals(order.getUserId())) {
+                errors.put(id, "Access denied to order: " + id);
+                continue;
+            }
+            try {
+                OrderTransitions.check(user.getRole(), order.getStatus(), newStatus);
+                eligible.add(order);
+            } catch (IllegalArgumentException e) {
+                errors.put(id, e.getMessage());
+            }
+        }
+
+        Map<String, Order> moved = new HashMap<>();
+        orderRepository.transitionStatuses(eligible, newStatus, transitionFields(newStatus, chefId, waiterId, user),
+                LocalDateTime.now()).forEach(order -> moved.put(order.getId(), order));
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (String id : ids) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("orderId", id);
+            Order order = moved.get(id);
+            result.put("success", order != null);
+            if (order != null) {
+                result.put("status", order.getStatus());
+            } else {
+                result.put("error", errors.getOrDefault(id,
+                        "Order " + id + " was changed concurrently before it could move to " + newStatus));
+            }
+            results.add(result);
+        }
+
+        if (!moved.isEmpty()) {
+            List<Order> updatedOrders = new ArrayList<>(moved.values());
+            populateCustomerNames(updatedOrders);
+            try {
+                notificationService.notifyOrderStatusBatch(newStatus, updatedOrders);
+            } catch (Exception e) {
+                logger.error("Failed to broadcast bulk order update: {}", e.getMessage());
+            }
+        }
+
+        logger.info("Bulk update to {} by {}: {} of {} orders moved", newStatus, userEmail, moved.size(), ids.size());
+        return results;
+    }
+
+    /**
+     * Fields that change together with the status
+     */
+    private Map<String, Object> transitionFields(Order.OrderStatus newStatus, String chefId, String waiterId,
+            User user) {
+        Map<String, Object> fields = new HashMap<>();
+        switch (newStatus) {
+            case PREPARING:
+                if (chefId != null) {
+                    fields.put("assignedChefId", chefId);
+                } else if ("ROLE_CHEF".equals(user.getRole())) {
+                    fields.put("assignedChefId", user.getId());
+                }
+                break;
+            case SERVED:
+                if (waiterId != null) {
+                    fields.put("assignedWaiterId", waiterId);
+                } else if ("ROLE_WAITER".equals(user.getRole())) {
+                    fields.put("assignedWaiterId", user.getId());
+                }
+                break;
+            case COMPLETED:
+                fields.put("paymentStatus", Order.PaymentStatus.PAID);
+                break;
+            default:
+                break;
+        }
+        return fields;
+    }
+
     /**
      * Cancel order
      */
-    @Transactional
     public Order cancelOrder(String orderId, String userEmail) {
         logger.info("Cancelling order: {} by user: {}", orderId, userEmail);
 
@@ -362,12 +492,12 @@ public class OrderService {
             }
         }
 
-        order.cancel();
+        if (!order.canBeCancelled()) {
+            throw new IllegalStateException("Order cannot be cancelled in current status: " + order.getStatus());
+        }
 
-        // Restore stock
-        restoreStock(order.getItems());
+        Order cancelledOrder = cancelAndRestock(orderId, order.getStatus(), Map.of());
 
-        Order cancelledOrder = orderRepository.save(order);
         logger.info("Order cancelled successfully: {}", orderId);
 
         return cancelledOrder;
@@ -514,90 +644,127 @@ public class OrderService {
     }
 
     /**
-     * Restore stock for cancelled orders
+     * Take stock item by item, then insert the order; stock already taken is
+     * given back if a later item or the insert fails
      */
-    private void restoreStock(List<Order.OrderItem> items) {
-        for (Order.OrderItem item : items) {
-            productService.increaseStock(item.getProductId(), item.getQuantity());
+    private Order placeWithConditionalUpdates(Order order) {
+        List<Order.OrderItem> taken = new ArrayList<>();
+        try {
+            return takeStockAndInsert(order, taken);
+        } catch (RuntimeException e) {
+            for (Order.OrderItem item : taken) {
+                try {
+                    productService.increaseStock(item.getProductId(), item.getQuantity());
+                } catch (Exception restockError) {
+                    logger.error("Failed to give back {} of product {} after failed order: {}",
+                            item.getQuantity(), item.getProductId(), restockError.getMessage());
+                }
+            }
+            throw e;
+        }
+    }
+
+    private Order takeStockAndInsert(Order order, List<Order.OrderItem> taken) {
+        if (order.getItems() != null) {
+            for (Order.OrderItem item : order.getItems()) {
+                productService.decreaseStockAtomic(item.getProductId(), item.getQuantity());
+                taken.add(item);
+            }
         }
+        return orderRepository.save(order);
     }
 
     /**
-     * Validate status transition based on user role
+     * Move an order to CANCELLED and restore its stock; in transactional
+     * placement mode both happen in one transaction
      */
-    private void validateStatusTransition(Order.OrderStatus currentStatus, Order.OrderStatus newStatus,
-            String userRole) {
-        switch (userRole) {
-            case "ROLE_ADMIN":
-                // Admin can do any valid transition
-                break;
-            case "ROLE_CHEF":
-                // Chef can update to CONFIRMED, PREPARING, or READY_FOR_SERVICE
-                if (newStatus != Order.OrderStatus.CONFIRMED &&
-                        newStatus != Order.OrderStatus.PREPARING &&
-                        newStatus != Order.OrderStatus.READY_FOR_SERVICE) {
-                    throw new IllegalArgumentException(
-                            "Chef can only update order to CONFIRMED, PREPARING or READY_FOR_SERVICE");
-                }
-                break;
-            case "ROLE_WAITER":
-                // Waiter can only update to SERVED
-                if (newStatus != Order.OrderStatus.SERVED) {
-                    throw new IllegalArgumentException("Waiter can only update order to SERVED");
-                }
-                break;
-            case "ROLE_CUSTOMER":
-                // Customer can only cancel their own orders
-                if (newStatus != Order.OrderStatus.CANCELLED) {
-                    throw new IllegalArgumentException("Customer can only cancel orders");
+    private Order cancelAndRestock(String orderId, Order.OrderStatus expected, Map<String, Object> fields) {
+        Supplier<Order> cancel = () -> {
+            Order cancelledOrder = orderRepository.transitionStatus(orderId, expected, Order.OrderStatus.CANCELLED,
+                    fields, LocalDateTime.now());
+            if (cancelledOrder == null) {
+                throw transitionConflict(orderId, expected, Order.OrderStatus.CANCELLED);
+            }
+            // Only the request that won the transition restores stock
+            restoreStock(cancelledOrder.getItems());
+            return cancelledOrder;
+        };
+        return isTransactionalPlacement() ? inTransaction("cancel", cancel) : cancel.get();
+    }
+
+    /**
+     * Run work in a Mongo transaction, re-running the whole transaction while
+     * the server labels the failure a TransientTransactionError
+     *
+     * Save and delete events of the writes reach the listeners only once the
+     * transaction has committed (see TransactionAwareEventMulticaster), so an
+     * aborted attempt leaves nothing behind in the in-memory views.
+     */
+    private <T> T inTransaction(String operation, Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = transactionTemplate.execute(status -> work.get());
+                transactionsCommitted.incrementAndGet();
+                return result;
+            } catch (RuntimeException e) {
+                if (attempt >= maxTransactionAttempts || !hasErrorLabel(e, MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                    transactionsFailed.incrementAndGet();
+                    throw e;
                 }
-                break;
-            default:
-                throw new IllegalArgumentException("Invalid user role");
+                transientRetries.incrementAndGet();
+                logger.warn("Transient transaction error on order {} (attempt {}), retrying: {}",
+                        operation, attempt, e.getMessage());
+            }
         }
+    }
 
-        // Additional validation for status transitions
-        switch (currentStatus) {
-            case PENDING:
-                if (newStatus != Order.OrderStatus.CONFIRMED && newStatus != Order.OrderStatus.CANCELLED) {
-                    throw new IllegalArgumentException("Invalid status transition from PENDING");
-                }
-                break;
-            case CONFIRMED:
-                if (newStatus != Order.OrderStatus.PREPARING && newStatus != Order.OrderStatus.CANCELLED) {
-                    throw new IllegalArgumentException("Invalid status transition from CONFIRMED");
-                }
-                break;
-            case PREPARING:
-                if (newStatus != Order.OrderStatus.READY_FOR_SERVICE && newStatus != Order.OrderStatus.CANCELLED) {
-                    throw new IllegalArgumentException("Invalid status transition from PREPARING");
-                }
-                break;
-            case READY_FOR_SERVICE:
-                if (newStatus != Order.OrderStatus.SERVED) {
-                    throw new IllegalArgumentException("Invalid status transition from READY_FOR_SERVICE");
-                }
-                break;
-            case SERVED:
-                if (newStatus != Order.OrderStatus.COMPLETED) {
-                    throw new IllegalArgumentException("Invalid status transition from SERVED");
-                }
-                break;
-            case COMPLETED:
-            case CANCELLED:
-                throw new IllegalArgumentException("Cannot transition from final status");
+    private static boolean hasErrorLabel(Throwable error, String label) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException && ((MongoException) cause).hasErrorLabel(label)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isTransactionalPlacement() {
+        return "transactional".equalsIgnoreCase(placementMode);
+    }
+
+    /**
+     * Placement mode and transaction outcome counters
+     */
+    public Map<String, Object> getPlacementStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("mode", isTransactionalPlacement() ? "transactional" : "conditional");
+        stats.put("transactionsCommitted", transactionsCommitted.get());
+        stats.put("transactionsFailed", transactionsFailed.get());
+        stats.put("transientRetries", transientRetries.get());
+        return stats;
+    }
+
+    /**
+     * Restore stock for cancelled orders
+     */
+    private void restoreStock(List<Order.OrderItem> items) {
+        for (Order.OrderItem item : items) {
+            try {
+                productService.increaseStock(item.getProductId(), item.getQuantity());
+            } catch (IllegalArgumentException e) {
+                // A deleted product must not block (or, in a transaction, abort) the cancellation
+                logger.warn("Not restoring stock of removed product {}: {}", item.getProductId(), e.getMessage());
+            }
         }
     }
 
     /**
      * Assign order to chef
+     *
+     * A CONFIRMED order moves to PREPARING together with the assignment;
+     * otherwise only the chef is set, leaving the status untouched.
      */
-    @Transactional
     public Order assignOrderToChef(String orderId, String chefId) {
         try {
-            Order order = orderRepository.findById(orderId)
-                    .orElseThrow(() -> new IllegalArgumentException("Order not found"));
-
             User chef = userRepository.findById(chefId)
                     .orElseThrow(() -> new IllegalArgumentException("Chef not found"));
 
@@ -605,15 +772,15 @@ public class OrderService {
                 throw new IllegalArgumentException("User is not a chef");
             }
 
-            // Assign chef to order
-            order.setAssignedChefId(chefId);
-
-            // Update status to PREPARING if still CONFIRMED
-            if (order.getStatus() == Order.OrderStatus.CONFIRMED) {
-                order.setStatus(Order.OrderStatus.PREPARING);
+            Map<String, Object> fields = Map.of("assignedChefId", chefId);
+            Order savedOrder = orderRepository.transitionStatus(orderId, Order.OrderStatus.CONFIRMED,
+                    Order.OrderStatus.PREPARING, fields, LocalDateTime.now());
+            if (savedOrder == null) {
+                savedOrder = orderRepository.updateOrderFields(orderId, fields, LocalDateTime.now());
+            }
+            if (savedOrder == null) {
+                throw new IllegalArgumentException("Order not found");
             }
-
-            Order savedOrder = orderRepository.save(order);
 
             logger.info("Order {} assigned to chef {}", orderId, chefId);
             return savedOrder;
@@ -626,13 +793,12 @@ public class OrderService {
 
     /**
      * Assign order to waiter
+     *
+     * A PREPARING order moves to READY_FOR_SERVICE together with the
+     * assignment; otherwise only the waiter is set.
      */
-    @Transactional
     public Order assignOrderToWaiter(String orderId, String waiterId) {
         try {
-            Order order = orderRepository.findById(orderId)
-                    .orElseThrow(() -> new IllegalArgumentException("Order not found"));
-
             // Validate waiter exists and has WAITER role
             User waiter = userRepository.findById(waiterId)
                     .orElseThrow(() -> new IllegalArgumentException("Waiter not found"));
@@ -641,15 +807,15 @@ public class OrderService {
                 throw new IllegalArgumentException("User is not a waiter");
             }
 
-            // Assign waiter to order
-            order.setAssignedWaiterId(waiterId);
-
-            // Update status to READY_FOR_SERVICE if still PREPARING
-            if (order.getStatus() == Order.OrderStatus.PREPARING) {
-                order.setStatus(Order.OrderStatus.READY_FOR_SERVICE);
+            Map<String, Object> fields = Map.of("assignedWaiterId", waiterId);
+            Order savedOrder = orderRepository.transitionStatus(orderId, Order.OrderStatus.PREPARING,
+                    Order.OrderStatus.READY_FOR_SERVICE, fields, LocalDateTime.now());
+            if (savedOrder == null) {
+                savedOrder = orderRepository.updateOrderFields(orderId, fields, LocalDateTime.now());
+            }
+            if (savedOrder == null) {
+                throw new IllegalArgumentException("Order not found");
             }
-
-            Order savedOrder = orderRepository.save(order);
 
             logger.info("Order {} assigned to waiter {}", orderId, waiterId);
             return savedOrder;
@@ -660,21 +826,56 @@ public class OrderService {
         }
     }
 
+    /**
+     * Conflict raised when a compare-and-set transition found the order in another status
+     */
+    private IllegalStateException transitionConflict(String orderId, Order.OrderStatus expected,
+            Order.OrderStatus next) {
+        Optional<Order> current = orderRepository.findById(orderId);
+        if (current.isEmpty()) {
+            return new IllegalStateException("Order " + orderId + " was deleted before it could move to " + next);
+        }
+        return new IllegalStateException("Order " + orderId + " was changed concurrently: expected " + expected
+                + " to move to " + next + ", but it is now " + current.get().getStatus());
+    }
+
+    /**
+     * Populate customer names for several orders with one user lookup
+     */
+    private void populateCustomerNames(List<Order> orders) {
+        Set<String> userIds = new HashSet<>();
+        orders.forEach(order -> {
+            if (order.getUserId() != null) {
+                userIds.add(order.getUserId());
+            }
+        });
+        Map<String, User> users = new HashMap<>();
+        userRepository.findAllById(userIds).forEach(user -> users.put(user.getId(), user));
+        for (Order order : orders) {
+            User user = users.get(order.getUserId());
+            if (user != null) {
+                order.setCustomerName(customerName(user));
+            }
+        }
+    }
+
     /**
      * Populate customer name for an order
      */
     private void populateCustomerName(Order order) {
         if (order.getUserId() != null) {
-            userRepository.findById(order.getUserId()).ifPresent(user -> {
-                String name = user.getName();
-                if (name == null || name.isEmpty()) {
-                    name = user.getUsername();
-                }
-                if (name == null || name.isEmpty()) {
-                    name = "Customer";
-                }
-                order.setCustomerName(name);
-            });
+            userRepository.findById(order.getUserId()).ifPresent(user -> order.setCustomerName(customerName(user)));
+        }
+    }
+
+    private static String customerName(User user) {
+        String name = user.getName();
+        if (name == null || name.isEmpty()) {
+            name = user.getUsername();
+        }
+        if (name == null || name.isEmpty()) {
+            name = "Customer";
         }
+        return name;
     }
 }
@@ -0,0 +1,83 @@
+package com.coffeebeat.service;
+
+import com.coffeebeat.model.Order;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Order status transition table
+ *
+ * FLOW lists the order lifecycle; each role may take the lifecycle edges
+ * that lead to one of its target statuses. The per-role tables are built
+ * once, so checking a transition is two map lookups.
+ */
+final class OrderTransitions {
+
+    private static final Map<Order.OrderStatus, Set<Order.OrderStatus>> FLOW = new EnumMap<>(Order.OrderStatus.class);
+
+    static {
+        FLOW.put(Order.OrderStatus.PENDING, EnumSet.of(Order.OrderStatus.CONFIRMED, Order.OrderStatus.CANCELLED));
+        FLOW.put(Order.OrderStatus.CONFIRMED, EnumSet.of(Order.OrderStatus.PREPARING, Order.OrderStatus.CANCELLED));
+        FLOW.put(Order.OrderStatus.PREPARING, EnumSet.of(Order.OrderStatus.READY_FOR_SERVICE));
+        FLOW.put(Order.OrderStatus.READY_FOR_SERVICE, EnumSet.of(Order.OrderStatus.SERVED));
+        FLOW.put(Order.OrderStatus.SERVED, EnumSet.of(Order.OrderStatus.COMPLETED));
+        FLOW.put(Order.OrderStatus.COMPLETED, EnumSet.noneOf(Order.OrderStatus.class));
+        FLOW.put(Order.OrderStatus.CANCELLED, EnumSet.noneOf(Order.OrderStatus.class));
+    }
+
+    private static final Map<String, Map<Order.OrderStatus, Set<Order.OrderStatus>>> BY_ROLE = new HashMap<>();
+
+    static {
+        BY_ROLE.put("ROLE_ADMIN", forTargets(EnumSet.allOf(Order.OrderStatus.class)));
+        BY_ROLE.put("ROLE_CHEF", forTargets(EnumSet.of(Order.OrderStatus.CONFIRMED,
+                Order.OrderStatus.PREPARING, Order.OrderStatus.READY_FOR_SERVICE)));
+        BY_ROLE.put("ROLE_WAITER", forTargets(EnumSet.of(Order.OrderStatus.SERVED)));
+        BY_ROLE.put("ROLE_CUSTOMER", forTargets(EnumSet.of(Order.OrderStatus.CANCELLED)));
+    }
+
+    private OrderTransitions() {
+    }
+
+    /**
+     * Statuses the role may move an order to from its current status
+     */
+    static Set<Order.OrderStatus> allowed(String role, Order.OrderStatus current) {
+        Map<Order.OrderStatus, Set<Order.OrderStatus>> table = BY_ROLE.get(role);
+        if (table == null) {
+            return Collections.emptySet();
+        }
+        return table.getOrDefault(current, Collections.emptySet());
+    }
+
+    /**
+     * Reject a transition the role may not make, saying what it may do instead
+     */
+    static void check(String role, Order.OrderStatus current, Order.OrderStatus next) {
+        if (!BY_ROLE.containsKey(role)) {
+            throw new IllegalArgumentException("Invalid user role");
+        }
+        if (FLOW.get(current).isEmpty()) {
+            throw new IllegalArgumentException("Cannot transition from final status " + current);
+        }
+        Set<Order.OrderStatus> allowed = allowed(role, current);
+        if (!allowed.contains(next)) {
+            throw new IllegalArgumentException("Invalid status transition from " + current + " to " + next
+                    + " for " + role + (allowed.isEmpty() ? " (no transitions allowed)" : " (allowed: " + allowed + ")"));
+        }
+    }
+
+    private static Map<Order.OrderStatus, Set<Order.OrderStatus>> forTargets(Set<Order.OrderStatus> targets) {
+        Map<Order.OrderStatus, Set<Order.OrderStatus>> table = new EnumMap<>(Order.OrderStatus.class);
+        FLOW.forEach((from, next) -> {
+            Set<Order.OrderStatus> allowed = EnumSet.noneOf(Order.OrderStatus.class);
+            next.stream().filter(targets::contains).forEach(allowed::add);
+            table.put(from, Collections.unmodifiableSet(allowed));
+        });
+        return table;
+    }
+}
@@ -0,0 +1,414 @@
+package com.coffeebeat.service;
+
+import com.coffeebeat.model.Product;
+import com.coffeebeat.repository.ProductRepository;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory search index over active products for menu autocomplete
+ *
+ * Name, category and description are tokenized into a sorted term
+ * dictionary (prefix lookups are a subMap range) with posting sets of
+ * product ids. Query tokens match terms exactly, by prefix, or within a
+ * small edit distance of a term prefix, so "capu" and "cappucino" both
+ * find "Cappuccino". Fuzzy candidates come from a bigram index over the
+ * terms, and only terms sharing enough bigrams with the query token get an
+ * edit distance computed. Every query token must match; results are ranked
+ * by match quality weighted by field.
+ *
+ * The index is loaded once at startup and kept current from Mongo save and
+ * delete events, so no search request touches the database.
+ */
+@Component
+public class ProductSearchIndex extends AbstractMongoEventListener<Product> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int MAX_QUERY_TOKENS = 8;
+
+    // Field weights
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double CATEGORY_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+
+    // Match quality
+    private static final double EXACT_MATCH = 1.0;
+    private static final double PREFIX_MATCH = 0.8;
+    private static final double FUZZY_MATCH = 0.5;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // term -> ids of products containing it
+    private final ConcurrentSkipListMap<String, Set<String>> terms = new ConcurrentSkipListMap<>();
+
+    // bigram -> terms containing it
+    private final Map<String, Set<String>> grams = new ConcurrentHashMap<>();
+
+    private final Map<String, IndexedProduct> products = new ConcurrentHashMap<>();
+
+    /**
+     * Load the index once the application (and data seeding) is up
+     *
+     * The query runs under the lock so a product saved while it is in flight
+     * is indexed after the reload rather than wiped by it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<Product> active = productRepository.findAllActive();
+        terms.clear();
+        grams.clear();
+        products.clear();
+        active.forEach(this::add);
+        logger.info("Product search index built: {} products, {} terms", products.size(), terms.size());
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Product> event) {
+        index(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Product> event) {
+        Object id = event.getSource().get("_id");
+        if (id instanceof String || id instanceof ObjectId) {
+            remove(id.toString());
+        } else {
+            // Deleted by an arbitrary query; resync rather than guess what went
+            rebuild();
+        }
+    }
+
+    /**
+     * Add or refresh a product; inactive products are dropped from the index
+     */
+    public synchronized void index(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        removeInternal(product.getId());
+        if (product.isActive()) {
+            add(product);
+        }
+    }
+
+    /**
+     * Remove a product from the index
+     */
+    public synchronized void remove(String productId) {
+        removeInternal(productId);
+    }
+
+    /**
+     * Ranked autocomplete suggestions for a (partial) query
+     */
+    public List<Map<String, Object>> suggest(String query, int limit) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        if (queryTokens.size() > MAX_QUERY_TOKENS) {
+            queryTokens = queryTokens.subList(0, MAX_QUERY_TOKENS);
+        }
+
+        Map<String, Double> scores = null;
+        for (String token : queryTokens) {
+            Map<String, Double> tokenScores = scoreToken(token);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                // All query tokens must match
+                Map<String, Double> combined = new HashMap<>();
+                for (Map.Entry<String, Double> entry : scores.entrySet()) {
+                    Double score = tokenScores.get(entry.getKey());
+                    if (score != null) {
+                        combined.put(entry.getKey(), entry.getValue() + score);
+                    }
+                }
+                scores = combined;
+            }
+            if (scores.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        String normalizedQuery = normalize(query).trim();
+        List<Map<String, Object>> results = new ArrayList<>();
+        scores.entrySet().stream()
+                .map(entry -> {
+                    IndexedProduct product = products.get(entry.getKey());
+                    if (product == null) {
+                        return null;
+                    }
+                    double score = entry.getValue();
+                    if (product.normalizedName.startsWith(normalizedQuery)) {
+                        score += NAME_WEIGHT;
+                    }
+                    return Map.entry(product, score);
+                })
+                .filter(entry -> entry != null)
+                .sorted(Comparator.<Map.Entry<IndexedProduct, Double>>comparingDouble(Map.Entry::getValue).reversed()
+                        .thenComparing(entry -> entry.getKey().name))
+                .limit(limit)
+                .forEach(entry -> results.add(entry.getKey().toSuggestion(entry.getValue())));
+        return results;
+    }
+
+    /**
+     * Best score per product for one query token
+     */
+    private Map<String, Double> scoreToken(String token) {
+        Map<String, Double> scores = new HashMap<>();
+        int maxEdits = maxEdits(token);
+
+        // Exact and prefix matches: one range scan over the sorted dictionary
+        for (Map.Entry<String, Set<String>> entry : terms.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            double quality = entry.getKey().equals(token) ? EXACT_MATCH : PREFIX_MATCH;
+            accumulate(scores, entry.getKey(), entry.getValue(), quality);
+        }
+
+        // Typo tolerance: edit distance against prefixes of the candidate terms
+        if (maxEdits > 0) {
+            for (String term : fuzzyCandidates(token, maxEdits)) {
+                if (term.startsWith(token) || term.length() < token.length() - maxEdits) {
+                    continue;
+                }
+                Set<String> productIds = terms.get(term);
+                int distance = prefixEditDistance(token, term, maxEdits);
+                if (productIds != null && distance <= maxEdits) {
+                    accumulate(scores, term, productIds, FUZZY_MATCH / distance);
+                }
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Terms that can be within maxEdits of the token
+     *
+     * One edit changes at most two bigrams, so a term with a prefix within
+     * maxEdits contains at least (bigrams in the token - 2 * maxEdits) of the
+     * token's bigrams; terms below that are skipped without computing a
+     * distance.
+     */
+    private Set<String> fuzzyCandidates(String token, int maxEdits) {
+        Map<String, Integer> shared = new HashMap<>();
+        for (int i = 0; i + 1 < token.length(); i++) {
+            Set<String> containing = grams.get(token.substring(i, i + 2));
+            if (containing != null) {
+                containing.forEach(term -> shared.merge(term, 1, Integer::sum));
+            }
+        }
+        int required = Math.max(1, token.length() - 1 - 2 * maxEdits);
+        Set<String> candidates = new HashSet<>();
+        shared.forEach((term, count) -> {
+            if (count >= required) {
+                candidates.add(term);
+            }
+        });
+        return candidates;
+    }
+
+    private void accumulate(Map<String, Double> scores, String term, Set<String> productIds, double quality) {
+        for (String productId : productIds) {
+            IndexedProduct product = products.get(productId);
+            if (product == null) {
+                continue;
+            }
+            double score = quality * product.fieldWeight(term);
+            scores.merge(productId, score, Math::max);
+        }
+    }
+
+    /**
+     * Edits allowed for a query token: none for very short tokens
+     */
+    private int maxEdits(String token) {
+        if (token.length() < 4) {
+            return 0;
+        }
+        return token.length() < 8 ? 1 : 2;
+    }
+
+    /**
+     * Smallest edit distance between the query and any prefix of the term,
+     * or maxEdits + 1 once every alignment already exceeds the bound
+     */
+    static int prefixEditDistance(String query, String term, int maxEdits) {
+        int[] previous = new int[term.length() + 1];
+        int[] current = new int[term.length() + 1];
+        for (int j = 0; j <= term.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= query.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            char q = query.charAt(i - 1);
+            for (int j = 1; j <= term.length(); j++) {
+                int cost = q == term.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        int best = Integer.MAX_VALUE;
+        for (int value : previous) {
+            best = Math.min(best, value);
+        }
+        return best;
+    }
+
+    private void add(Product product) {
+        IndexedProduct indexed = new IndexedProduct(product);
+        products.put(indexed.id, indexed);
+        for (String term : indexed.allTerms()) {
+            terms.computeIfAbsent(term, key -> {
+                bigrams(key).forEach(gram -> grams.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(key));
+                return ConcurrentHashMap.newKeySet();
+            }).add(indexed.id);
+        }
+    }
+
+    private void removeInternal(String productId) {
+        IndexedProduct indexed = products.remove(productId);
+        if (indexed == null) {
+            return;
+        }
+        for (String term : indexed.allTerms()) {
+            terms.computeIfPresent(term, (key, ids) -> {
+                ids.remove(productId);
+                if (!ids.isEmpty()) {
+                    return ids;
+                }
+                bigrams(key).forEach(gram -> grams.computeIfPresent(gram, (g, containing) -> {
+                    containing.remove(key);
+                    return containing.isEmpty() ? null : containing;
+                }));
+                return null;
+            });
+        }
+    }
+
+    private static Set<String> bigrams(String term) {
+        Set<String> bigrams = new HashSet<>();
+        for (int i = 0; i + 1 < term.length(); i++) {
+            bigrams.add(term.substring(i, i + 2));
+        }
+        return bigrams;
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(normalize(text))) {
+            if (token.length() >= MIN_TOKEN_LENGTH) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Snapshot of the searchable fields and the suggestion payload of a product
+     */
+    private static class IndexedProduct {
+
+        private final String id;
+        private final String name;
+        private final String normalizedName;
+        private final String slug;
+        private final String category;
+        private final Double price;
+        private final String imageUrl;
+
+        private final Set<String> nameTerms;
+        private final Set<String> categoryTerms;
+        private final Set<String> descriptionTerms;
+
+        IndexedProduct(Product product) {
+            this.id = product.getId();
+            this.name = product.getName() != null ? product.getName() : "";
+            this.normalizedName = normalize(this.name);
+            this.slug = product.getSlug();
+            this.category = product.getCategory();
+            this.price = product.getPrice();
+            String image = product.getImageUrl();
+            this.imageUrl = image != null && !image.startsWith("data:") ? image : null;
+
+            this.nameTerms = new HashSet<>(tokenize(product.getName()));
+            this.categoryTerms = new HashSet<>(tokenize(product.getCategory()));
+            this.descriptionTerms = new HashSet<>(tokenize(product.getDescription()));
+        }
+
+        Set<String> allTerms() {
+            Set<String> all = new LinkedHashSet<>(nameTerms);
+            all.addAll(categoryTerms);
+            all.addAll(descriptionTerms);
+            return all;
+        }
+
+        double fieldWeight(String term) {
+            if (nameTerms.contains(term)) {
+                return NAME_WEIGHT;
+            }
+            if (categoryTerms.contains(term)) {
+                return CATEGORY_WEIGHT;
+            }
+            return descriptionTerms.contains(term) ? DESCRIPTION_WEIGHT : 0.0;
+        }
+
+        Map<String, Object> toSuggestion(double score) {
+            Map<String, Object> suggestion = new HashMap<>();
+            suggestion.put("id", id);
+            suggestion.put("name", name);
+            suggestion.put("slug", slug);
+            suggestion.put("category", category);
+            suggestion.put("price", price);
+            suggestion.put("imageUrl", imageUrl);
+            suggestion.put("score", Math.round(score * 100) / 100.0);
+            return suggestion;
+        }
+    }
+}
@@ -5,17 +5,13 @@ import com.coffeebeat.repository.ProductRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -38,8 +34,14 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
-    @Value("${app.upload.dir:uploads}")
-    private String uploadDir;
+    @Autowired
+    private ImageStorageService imageStorageService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
 
     /**
      * Get all products (including inactive)
@@ -179,11 +181,12 @@ public class ProductService {
     public Map<String, Object> toggleProductAvailability(String id) {
         logger.info("Toggling availability for product: {}", id);
 
-        Product existingProduct = findByIdWithoutActiveCheck(id);
-        boolean newStatus = !existingProduct.isActive();
-        existingProduct.setActive(newStatus);
-
-        Product updatedProduct = productRepository.save(existingProduct);
+        Product updatedProduct = productRepository.toggleProductActiveStatus(id, LocalDateTime.now());
+        if (updatedProduct == null) {
+            throw new IllegalArgumentException("Product not found with ID: " + id);
+        }
+        productSearchIndex.index(updatedProduct);
+        boolean newStatus = updatedProduct.isActive();
         logger.info("Product availability toggled successfully: {} -> {}", id, newStatus);
 
         Map<String, Object> result = new HashMap<>();
@@ -198,6 +201,10 @@ public class ProductService {
      * Update existing product
      */
     public Product updateProduct(String id, Product productDetails) {
+        return optimisticRetry.execute("product.update", () -> applyProductUpdate(id, productDetails));
+    }
+
+    private Product applyProductUpdate(String id, Product productDetails) {
         logger.info("Updating product: {}", id);
 
         Product existingProduct = findByIdWithoutActiveCheck(id);
@@ -255,10 +262,11 @@ public class ProductService {
     public void deleteProduct(String id) {
         logger.info("Deleting product: {}", id);
 
-        Product existingProduct = findById(id);
-        existingProduct.setActive(false);
-
-        productRepository.save(existingProduct);
+        optimisticRetry.run("product.delete", () -> {
+            Product existingProduct = findById(id);
+            existingProduct.setActive(false);
+            productRepository.save(existingProduct);
+        });
         logger.info("Product deleted successfully: {}", id);
     }
 
@@ -269,12 +277,8 @@ public class ProductService {
         logger.info("Hard deleting product: {}", id);
 
         Product existingProduct = findByIdWithoutActiveCheck(id);
-        
-        // Delete associated image if exists
-        if (existingProduct.getImageUrl() != null && !existingProduct.getImageUrl().isEmpty()) {
-            deleteImageFile(existingProduct.getImageUrl());
-        }
 
+        // Image files may be shared by other products; orphans are reclaimed by ImageGarbageCollector
         productRepository.delete(existingProduct);
         logger.info("Product hard deleted successfully: {}", id);
     }
@@ -339,12 +343,12 @@ public class ProductService {
     public Product toggleAvailability(String id) {
         logger.info("Toggling availability for product: {}", id);
 
-        Product existingProduct = findByIdWithoutActiveCheck(id);
-        boolean newStatus = !existingProduct.isAvailable();
-        existingProduct.setAvailable(newStatus);
-
-        Product updatedProduct = productRepository.save(existingProduct);
-        logger.info("Product availability toggled: {} -> {}", id, newStatus);
+        Product updatedProduct = productRepository.toggleProductAvailability(id, LocalDateTime.now());
+        if (updatedProduct == null) {
+            throw new IllegalArgumentException("Product not found with ID: " + id);
+        }
+        productSearchIndex.index(updatedProduct);
+        logger.info("Product availability toggled: {} -> {}", id, updatedProduct.isActive());
 
         return updatedProduct;
     }
@@ -359,54 +363,50 @@ public class ProductService {
             throw new IllegalArgumentException("Stock cannot be negative");
         }
 
-        Product existingProduct = findById(id);
-        existingProduct.setStock(newStock);
-
-        Product updatedProduct = productRepository.save(existingProduct);
+        Product updatedProduct = productRepository.updateActiveProductStock(id, newStock, LocalDateTime.now());
+        if (updatedProduct == null) {
+            throw new IllegalArgumentException("Product not found with ID: " + id);
+        }
         logger.info("Stock updated successfully for product: {}", updatedProduct.getId());
 
         return updatedProduct;
     }
 
     /**
-     * Decrease product stock atomically using findAndModify
+     * Decrease product stock atomically (conditional $inc, no read-modify-write)
      */
     public void decreaseStockAtomic(String productId, int quantity) {
         logger.info("Decreasing stock for product {} by {} units", productId, quantity);
-        
-        // Use MongoDB's findAndModify for atomic operation
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new IllegalArgumentException("Product not found: " + productId));
-        
-        if (product.getStock() < quantity) {
+
+        if (!productRepository.decrementActiveProductStock(productId, quantity, LocalDateTime.now())) {
+            // Only read the product to explain why the update did not apply
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new IllegalArgumentException("Product not found: " + productId));
             throw new IllegalArgumentException("Insufficient stock for product: " + product.getName() +
                     ". Available: " + product.getStock() + ", Requested: " + quantity);
         }
-        
-        // Atomic update
-        product.setStock(product.getStock() - quantity);
-        product.setUpdatedAt(java.time.LocalDateTime.now());
-        productRepository.save(product);
-        
-        logger.info("Stock decreased successfully for product {}. New stock: {}", productId, product.getStock());
+
+        logger.info("Stock decreased successfully for product {}", productId);
     }
 
     /**
      * Decrease product stock
      */
     public void decreaseStock(String productId, int quantity) {
-        Product product = findById(productId);
-        product.decreaseStock(quantity);
-        productRepository.save(product);
+        if (!productRepository.decrementActiveProductStock(productId, quantity, LocalDateTime.now())) {
+            Product product = findById(productId);
+            throw new IllegalArgumentException("Insufficient stock. Available: " + product.getStock() +
+                    ", Requested: " + quantity);
+        }
     }
 
     /**
      * Increase product stock
      */
     public void increaseStock(String productId, int quantity) {
-        Product product = findById(productId);
-        product.increaseStock(quantity);
-        productRepository.save(product);
+        if (!productRepository.incrementActiveProductStock(productId, quantity, LocalDateTime.now())) {
+            throw new IllegalArgumentException("Product not found with ID: " + productId);
+        }
     }
 
     /**
@@ -474,24 +474,9 @@ public class ProductService {
                 throw new IllegalArgumentException("Only image files are allowed");
             }
 
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = originalFilename != null ? 
-                originalFilename.substring(originalFilename.lastIndexOf(".")) : "";
-            String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
-
-            // Save file
-            Path filePath = uploadPath.resolve(uniqueFilename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            logger.info("Image uploaded successfully: {}", uniqueFilename);
-            return "/api/uploads/images/" + uniqueFilename;
+            // Stored under its content hash; identical uploads share one file
+            String filename = imageStorageService.store(file, imageStorageService.getUploadRoot());
+            return "/api/uploads/images/" + filename;
 
         } catch (IOException e) {
             logger.error("Failed to upload image: {}", e.getMessage());
@@ -499,25 +484,6 @@ public class ProductService {
         }
     }
 
-    /**
-     * Delete image file
-     */
-    private void deleteImageFile(String imageUrl) {
-        try {
-            if (imageUrl != null && imageUrl.contains("/api/uploads/images/")) {
-                String filename = imageUrl.substring(imageUrl.lastIndexOf("/") + 1);
-                Path filePath = Paths.get(uploadDir).resolve(filename);
-                
-                if (Files.exists(filePath)) {
-                    Files.delete(filePath);
-                    logger.info("Image file deleted: {}", filename);
-                }
-            }
-        } catch (IOException e) {
-            logger.error("Failed to delete image file: {}", e.getMessage());
-        }
-    }
-
     /**
      * Validate product data
      */
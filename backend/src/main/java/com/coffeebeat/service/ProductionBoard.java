@@ -0,0 +1,302 @@
+package com.coffeebeat.service;
+
+import com.coffeebeat.model.Order;
+import com.coffeebeat.repository.OrderRepository;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live item counts for the kitchen
+ *
+ * For every product, how many units are pending (in PENDING or CONFIRMED
+ * orders) and how many are in progress (in PREPARING orders). The counts are
+ * loaded once at startup and afterwards only adjusted from order save and
+ * delete events: each order's last known contribution is kept, so an event
+ * subtracts the old one and adds the new one. Events older than the one
+ * already applied (by @Version) are ignored; orders that left the board are
+ * remembered for a while so a late event cannot bring them back.
+ *
+ * Every change is pushed to /topic/production-board as the new counts of the
+ * products it touched, with a sequence number; a client that sees a gap
+ * fetches the snapshot again.
+ */
+@Component
+public class ProductionBoard extends AbstractMongoEventListener<Order> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductionBoard.class);
+
+    private enum Stage {
+        PENDING,
+        IN_PROGRESS,
+        NONE
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Value("${app.production-board.forget-after-ms:600000}")
+    private long forgetAfterMillis;
+
+    // Written under "this"; products is read without locking for snapshots
+    private final Map<String, ProductCount> products = new ConcurrentHashMap<>();
+    private final Map<String, OrderContribution> orders = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Load the orders that are on the board
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Order> open = orderRepository.findByStatusIn(List.of(
+                Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED, Order.OrderStatus.PREPARING));
+        open.forEach(this::apply);
+        logger.info("Production board loaded: {} orders, {} products", open.size(), products.size());
+    }
+
+    /**
+     * Forget orders that left the board long enough ago that no late event can still arrive for them
+     */
+    @Scheduled(fixedDelayString = "${app.production-board.forget-after-ms:600000}")
+    public void forgetFinished() {
+        long cutoff = System.currentTimeMillis() - forgetAfterMillis;
+        orders.values().removeIf(contribution -> contribution.stage == Stage.NONE && contribution.since < cutoff);
+    }
+
+    /**
+     * Pending and in-progress quantities per product, busiest first
+     */
+    public Map<String, Object> getSnapshot() {
+        long at = sequence.get();
+        List<Map<String, Object>> items = new ArrayList<>();
+        int pending = 0;
+        int inProgress = 0;
+        for (Map.Entry<String, ProductCount> entry : products.entrySet()) {
+            ProductCount count = entry.getValue();
+            items.add(count.toMap(entry.getKey()));
+            pending += count.pending;
+            inProgress += count.inProgress;
+        }
+        items.sort(Comparator.comparingInt((Map<String, Object> item) ->
+                (Integer) item.get("pending") + (Integer) item.get("inProgress")).reversed());
+
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("sequence", at);
+        snapshot.put("items", items);
+        snapshot.put("pending", pending);
+        snapshot.put("inProgress", inProgress);
+        return snapshot;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Order> event) {
+        apply(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Order> event) {
+        Object id = event.getSource().get("_id");
+        if (!(id instanceof String || id instanceof ObjectId)) {
+            // Deleted by an arbitrary query; nothing to tell which orders went
+            logger.warn("Orders deleted by query; production board may be stale until restart");
+            return;
+        }
+        Map<String, int[]> deltas = new HashMap<>();
+        Map<String, String> names = new HashMap<>();
+        synchronized (this) {
+            OrderContribution previous = orders.get(id.toString());
+            if (previous != null) {
+                previous.addTo(deltas, names, -1);
+            }
+            // Deleted for good: outrank any save event still in flight
+            publish(deltas, names);
+            orders.put(id.toString(), OrderContribution.finished(Long.MAX_VALUE));
+        }
+    }
+
+    private void apply(Order order) {
+        if (order.getId() == null) {
+            return;
+        }
+        Map<String, int[]> deltas = new HashMap<>();
+        Map<String, String> names = new HashMap<>();
+        synchronized (this) {
+            OrderContribution previous = orders.get(order.getId());
+            if (previous != null && previous.isNewerThan(order.getVersion())) {
+                return;
+            }
+            OrderContribution next = OrderContribution.of(order);
+            if (previous != null) {
+                previous.addTo(deltas, names, -1);
+            }
+            next.addTo(deltas, names, 1);
+            publish(deltas, names);
+            orders.put(order.getId(), next);
+        }
+    }
+
+    /**
+     * Apply the net change per product and push the new counts of those that changed
+     *
+     * Called under the same lock as the order snapshot update, so the counts
+     * always equal the sum of the recorded contributions and sequence numbers
+     * follow the order in which counts changed. A count that would go
+     * negative means the contributions are out of step; nothing is applied
+     * and the caller does not record the order's new contribution.
+     */
+    private void publish(Map<String, int[]> deltas, Map<String, String> names) {
+        Map<String, ProductCount> updated = new LinkedHashMap<>();
+        deltas.forEach((productId, delta) -> {
+            if (delta[0] == 0 && delta[1] == 0) {
+                return;
+            }
+            ProductCount base = products.get(productId);
+            if (base == null) {
+                base = new ProductCount(names.get(productId), 0, 0);
+            }
+            String productName = names.get(productId) != null ? names.get(productId) : base.productName;
+            ProductCount next = new ProductCount(productName, base.pending + delta[0], base.inProgress + delta[1]);
+            if (next.pending < 0 || next.inProgress < 0) {
+                throw new IllegalStateException("Production board count of product " + productId
+                        + " went negative (pending " + next.pending + ", in progress " + next.inProgress + ")");
+            }
+            updated.put(productId, next);
+        });
+
+        List<Map<String, Object>> changed = new ArrayList<>();
+        updated.forEach((productId, next) -> {
+            if (next.pending == 0 && next.inProgress == 0) {
+                products.remove(productId);
+            } else {
+                products.put(productId, next);
+            }
+            changed.add(next.toMap(productId));
+        });
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> delta = new HashMap<>();
+        delta.put("sequence", sequence.incrementAndGet());
+        delta.put("items", changed);
+        try {
+            notificationService.notifyProductionBoard(delta);
+        } catch (Exception e) {
+            logger.error("Failed to broadcast production board update: {}", e.getMessage());
+        }
+    }
+
+    private static Stage stageOf(Order.OrderStatus status) {
+        if (status == null) {
+            return Stage.NONE;
+        }
+        switch (status) {
+            case PENDING:
+            case CONFIRMED:
+                return Stage.PENDING;
+            case PREPARING:
+                return Stage.IN_PROGRESS;
+            default:
+                return Stage.NONE;
+        }
+    }
+
+    /**
+     * What one order adds to the board, and at which version
+     */
+    private static class OrderContribution {
+
+        private final Stage stage;
+        private final Map<String, Integer> quantities;
+        private final Map<String, String> names;
+        private final Long version;
+        private final long since = System.currentTimeMillis();
+
+        private OrderContribution(Stage stage, Map<String, Integer> quantities, Map<String, String> names,
+                Long version) {
+            this.stage = stage;
+            this.quantities = quantities;
+            this.names = names;
+            this.version = version;
+        }
+
+        static OrderContribution of(Order order) {
+            Stage stage = stageOf(order.getStatus());
+            if (stage == Stage.NONE || order.getItems() == null) {
+                return finished(order.getVersion());
+            }
+            Map<String, Integer> quantities = new LinkedHashMap<>();
+            Map<String, String> names = new HashMap<>();
+            for (Order.OrderItem item : order.getItems()) {
+                if (item.getProductId() == null || item.getQuantity() == null) {
+                    continue;
+                }
+                quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+                names.put(item.getProductId(), item.getProductName());
+            }
+            return new OrderContribution(stage, quantities, names, order.getVersion());
+        }
+
+        static OrderContribution finished(Long version) {
+            return new OrderContribution(Stage.NONE, Map.of(), Map.of(), version);
+        }
+
+        boolean isNewerThan(Long other) {
+            return version != null && other != null && version > other;
+        }
+
+        void addTo(Map<String, int[]> deltas, Map<String, String> productNames, int sign) {
+            if (stage == Stage.NONE) {
+                return;
+            }
+            int slot = stage == Stage.PENDING ? 0 : 1;
+            quantities.forEach((productId, quantity) -> {
+                deltas.computeIfAbsent(productId, key -> new int[2])[slot] += sign * quantity;
+                productNames.putIfAbsent(productId, names.get(productId));
+            });
+        }
+    }
+
+    private static class ProductCount {
+
+        private final String productName;
+        private final int pending;
+        private final int inProgress;
+
+        ProductCount(String productName, int pending, int inProgress) {
+            this.productName = productName;
+            this.pending = pending;
+            this.inProgress = inProgress;
+        }
+
+        Map<String, Object> toMap(String productId) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("productId", productId);
+            map.put("productName", productName);
+            map.put("pending", pending);
+            map.put("inProgress", inProgress);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.coffeebeat.service;
+
+import com.coffeebeat.model.Booking;
+
+/**
+ * Delivery channel for booking reminders besides the in-app notification
+ *
+ * Every bean implementing this interface receives each reminder once it
+ * has been claimed, e.g. to send an email or SMS.
+ */
+public interface ReminderSink {
+
+    void sendReminder(Booking booking, String message);
+}
@@ -0,0 +1,284 @@
+package com.coffeebeat.service;
+
+import com.coffeebeat.model.Booking;
+import com.coffeebeat.repository.BookingRepository;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Capacity-aware table allocation
+ *
+ * Knows the floor plan (table number -> seats, from app.seating.tables) and
+ * keeps one interval tree of booked [start, start + duration) intervals per
+ * table. Allocation picks the smallest table that seats the party and has
+ * no overlapping booking, ties broken by table order on the floor plan.
+ *
+ * An allocated interval is held in the tree until the caller releases it,
+ * so two concurrent requests cannot be handed the same table; the saved
+ * booking itself arrives through the Mongo save event.
+ */
+@Component
+public class SeatingEngine extends AbstractMongoEventListener<Booking> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatingEngine.class);
+
+    private static final String HOLD_PREFIX = "hold-";
+
+    @Value("${app.seating.tables:T1:4,T2:4,T3:2,T4:6,T5:4,T6:2,T7:8,T8:4}")
+    private String floorPlan;
+
+    @Value("${app.booking.default-duration-minutes:90}")
+    private int defaultDurationMinutes;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    // Guarded by "this"
+    private Map<String, Integer> capacities = Collections.emptyMap();
+    private List<String> tablesBySize = Collections.emptyList();
+    private final Map<String, IntervalTree> trees = new HashMap<>();
+    private final Map<String, IndexedInterval> intervals = new HashMap<>();
+
+    /**
+     * Load the floor plan and the bookings that can still conflict
+     *
+     * The query runs under the lock so a booking saved while it is in flight
+     * is indexed after the reload instead of being wiped by it. Held
+     * allocations are not bookings yet and are carried over.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Map<String, Integer> plan = parseFloorPlan(floorPlan);
+        LocalDateTime from = LocalDate.now().atStartOfDay();
+        LocalDateTime to = from.plusDays(TableAvailabilityIndex.HORIZON_DAYS + 1L);
+        List<Booking> active = bookingRepository.findActiveBookingsBetween(from, to);
+
+        capacities = plan;
+        List<String> sorted = new ArrayList<>(plan.keySet());
+        List<String> floorOrder = new ArrayList<>(plan.keySet());
+        sorted.sort(Comparator.comparing((String table) -> plan.get(table)).thenComparing(floorOrder::indexOf));
+        tablesBySize = sorted;
+
+        Map<String, IndexedInterval> holds = new HashMap<>();
+        intervals.forEach((id, interval) -> {
+            if (id.startsWith(HOLD_PREFIX)) {
+                holds.put(id, interval);
+            }
+        });
+        trees.clear();
+        intervals.clear();
+        active.forEach(this::add);
+        holds.forEach((id, interval) -> insert(id, interval.tableNumber, interval.start, interval.end));
+        logger.info("Seating engine loaded: {} tables, {} bookings, {} held allocations kept",
+                plan.size(), active.size(), holds.size());
+    }
+
+    /**
+     * Drop intervals that ended before today
+     */
+    @Scheduled(cron = "${app.seating.prune-cron:0 0 4 * * *}")
+    public void prune() {
+        long cutoff = toMinutes(LocalDate.now().atStartOfDay());
+        synchronized (this) {
+            intervals.entrySet().removeIf(entry -> {
+                IndexedInterval interval = entry.getValue();
+                if (interval.end > cutoff) {
+                    return false;
+                }
+                IntervalTree tree = trees.get(interval.tableNumber);
+                if (tree != null) {
+                    tree.remove(interval.start, entry.getKey());
+                }
+                return true;
+            });
+        }
+    }
+
+    /**
+     * Tables on the floor plan with their seat counts, in floor order
+     */
+    public synchronized Map<String, Integer> getTables() {
+        return capacities;
+    }
+
+    public int getDefaultDurationMinutes() {
+        return defaultDurationMinutes;
+    }
+
+    /**
+     * Reserve the best-fitting free table for a party
+     *
+     * @param excluded tables not to consider (e.g. already rejected by the database)
+     * @return the held allocation, or null if no table fits
+     */
+    public synchronized Allocation allocate(int peopleCount, LocalDateTime start, int durationMinutes, Set<String> excluded) {
+        long from = toMinutes(start);
+        long to = from + durationMinutes;
+
+        for (String table : tablesBySize) {
+            if (capacities.get(table) < peopleCount || excluded.contains(table)) {
+                continue;
+            }
+            IntervalTree tree = trees.get(table);
+            if (tree == null || !tree.overlaps(from, to)) {
+                Allocation allocation = new Allocation(table, capacities.get(table), HOLD_PREFIX + UUID.randomUUID());
+                insert(allocation.holdId, table, from, to);
+                return allocation;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Give up a held allocation (the saved booking, if any, is indexed on its own)
+     */
+    public synchronized void release(Allocation allocation) {
+        remove(allocation.holdId);
+    }
+
+    /**
+     * Whether a table is free for the given interval
+     */
+    public synchronized boolean isFree(String tableNumber, LocalDateTime start, int durationMinutes) {
+        IntervalTree tree = trees.get(tableNumber);
+        long from = toMinutes(start);
+        return tree == null || !tree.overlaps(from, from + durationMinutes);
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Booking> event) {
+        index(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Booking> event) {
+        Object id = event.getSource().get("_id");
+        if (id instanceof String || id instanceof ObjectId) {
+            synchronized (this) {
+                remove(id.toString());
+            }
+        } else {
+            rebuild();
+        }
+    }
+
+    /**
+     * Add, move or drop a booking after it changed
+     */
+    public synchronized void index(Booking booking) {
+        if (booking == null || booking.getId() == null) {
+            return;
+        }
+        remove(booking.getId());
+        if (booking.getStatus() != null && booking.getStatus().holdsTable()) {
+            add(booking);
+        }
+    }
+
+    private void add(Booking booking) {
+        if (booking.getTableNumber() == null || booking.getTimeSlot() == null) {
+            return;
+        }
+        long from = toMinutes(booking.getTimeSlot());
+        insert(booking.getId(), booking.getTableNumber(), from, from + durationOf(booking));
+    }
+
+    private void insert(String id, String tableNumber, long from, long to) {
+        trees.computeIfAbsent(tableNumber, key -> new IntervalTree()).insert(from, to, id);
+        intervals.put(id, new IndexedInterval(tableNumber, from, to));
+    }
+
+    private void remove(String id) {
+        IndexedInterval interval = intervals.remove(id);
+        if (interval != null) {
+            IntervalTree tree = trees.get(interval.tableNumber);
+            if (tree != null) {
+                tree.remove(interval.start, id);
+            }
+        }
+    }
+
+    private int durationOf(Booking booking) {
+        Integer duration = booking.getDurationMinutes();
+        return duration != null && duration > 0 ? duration : defaultDurationMinutes;
+    }
+
+    private static long toMinutes(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    /**
+     * Parse "T1:4,T2:2" into table -> seats, keeping the configured order
+     */
+    private static Map<String, Integer> parseFloorPlan(String value) {
+        Map<String, Integer> plan = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2 || parts[0].isBlank()) {
+                throw new IllegalStateException("Invalid app.seating.tables entry: " + entry);
+            }
+            plan.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return Collections.unmodifiableMap(plan);
+    }
+
+    /**
+     * A table held for a booking that is about to be saved
+     */
+    public static class Allocation {
+
+        private final String tableNumber;
+        private final int capacity;
+        private final String holdId;
+
+        Allocation(String tableNumber, int capacity, String holdId) {
+            this.tableNumber = tableNumber;
+            this.capacity = capacity;
+            this.holdId = holdId;
+        }
+
+        public String getTableNumber() {
+            return tableNumber;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+    }
+
+    private static class IndexedInterval {
+
+        private final String tableNumber;
+        private final long start;
+        private final long end;
+
+        IndexedInterval(String tableNumber, long start, long end) {
+            this.tableNumber = tableNumber;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.coffeebeat.service;
+
+import com.coffeebeat.model.Booking;
+import com.coffeebeat.repository.BookingRepository;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of occupied half-hour slots per table and day
+ *
+ * Each table/day is a bitmask of the 28 slots between 08:00 and 22:00
+ * (bit i = 08:00 + 30 * i minutes). A booking occupies every slot that
+ * overlaps [timeSlot, timeSlot + durationMinutes), bookings without a
+ * duration taking the seating engine's default; so a 90-minute booking at
+ * 10:00 holds 10:00, 10:30 and 11:00 and one at 10:15 also holds 11:30.
+ * Availability checks are then a single AND against the table's mask.
+ *
+ * Days inside the booking horizon are loaded from Mongo on first use (one
+ * range query covering all missing days of a request) and kept current from
+ * booking save and delete events. Days outside the horizon are computed on
+ * demand and not kept.
+ */
+@Component
+public class TableAvailabilityIndex extends AbstractMongoEventListener<Booking> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TableAvailabilityIndex.class);
+
+    public static final LocalTime OPENING_TIME = LocalTime.of(8, 0);
+    public static final LocalTime CLOSING_TIME = LocalTime.of(22, 0);
+    public static final int SLOT_MINUTES = 30;
+    public static final int SLOTS_PER_DAY = 28;
+
+    /**
+     * Days ahead that bookings can be made (see BookingService.validateBooking)
+     */
+    public static final int HORIZON_DAYS = 30;
+
+    private static final long ALL_SLOTS = (1L << SLOTS_PER_DAY) - 1;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private SeatingEngine seatingEngine;
+
+    // Loaded days; guarded by "this" for writes
+    private final Map<LocalDate, DaySlots> days = new ConcurrentHashMap<>();
+
+    // Where each indexed booking currently sits, so updates can move it
+    private final Map<String, IndexedBooking> bookings = new HashMap<>();
+
+    /**
+     * Occupied slot mask of one table on a day
+     */
+    public long getOccupiedSlots(String tableNumber, LocalDate date) {
+        return getDay(date).tableMask(tableNumber);
+    }
+
+    /**
+     * Occupied slot masks of every table with bookings on a day
+     */
+    public Map<String, Long> getOccupiedSlots(LocalDate date) {
+        return getDay(date).snapshot();
+    }
+
+    /**
+     * Occupied slot masks of every table with bookings, per day of a date range
+     */
+    public Map<LocalDate, Map<String, Long>> getOccupiedSlots(LocalDate from, LocalDate to) {
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            if (!days.containsKey(date)) {
+                firstMissing = firstMissing == null ? date : firstMissing;
+                lastMissing = date;
+            }
+        }
+        Map<LocalDate, DaySlots> loaded = firstMissing != null ? loadDays(firstMissing, lastMissing) : Map.of();
+
+        Map<LocalDate, Map<String, Long>> result = new TreeMap<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            DaySlots day = loaded.containsKey(date) ? loaded.get(date) : days.get(date);
+            result.put(date, day != null ? day.snapshot() : getOccupiedSlots(date));
+        }
+        return result;
+    }
+
+    /**
+     * Whether a table is free for a booking of the default duration at the given time
+     */
+    public boolean isAvailable(String tableNumber, LocalDateTime time) {
+        long wanted = slotMask(time.toLocalTime(), seatingEngine.getDefaultDurationMinutes());
+        return wanted == 0 || (getOccupiedSlots(tableNumber, time.toLocalDate()) & wanted) == 0;
+    }
+
+    /**
+     * Slots a booking at the given time and of the given length occupies
+     */
+    public static long slotMask(LocalTime time, int durationMinutes) {
+        int from = (time.toSecondOfDay() - OPENING_TIME.toSecondOfDay()) / 60;
+        int to = from + Math.max(durationMinutes, 1);
+        long mask = 0;
+        for (int slot = Math.floorDiv(from, SLOT_MINUTES); slot <= Math.floorDiv(to - 1, SLOT_MINUTES); slot++) {
+            mask |= bit(slot);
+        }
+        return mask;
+    }
+
+    /**
+     * Compact form of a mask: one character per slot, '1' = occupied
+     */
+    public static String encode(long mask) {
+        char[] slots = new char[SLOTS_PER_DAY];
+        for (int i = 0; i < SLOTS_PER_DAY; i++) {
+            slots[i] = (mask & (1L << i)) != 0 ? '1' : '0';
+        }
+        return new String(slots);
+    }
+
+    /**
+     * Start time of a slot
+     */
+    public static LocalTime slotTime(int slot) {
+        return OPENING_TIME.plusMinutes((long) slot * SLOT_MINUTES);
+    }
+
+    /**
+     * Mask of slots starting at or after the given time
+     */
+    public static long slotsFrom(LocalTime time) {
+        int seconds = time.toSecondOfDay() - OPENING_TIME.toSecondOfDay();
+        if (seconds <= 0) {
+            return ALL_SLOTS;
+        }
+        int slotSeconds = SLOT_MINUTES * 60;
+        int first = (seconds + slotSeconds - 1) / slotSeconds;
+        return first >= SLOTS_PER_DAY ? 0 : ALL_SLOTS & ~((1L << first) - 1);
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Booking> event) {
+        index(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Booking> event) {
+        Object id = event.getSource().get("_id");
+        if (id instanceof String || id instanceof ObjectId) {
+            remove(id.toString());
+        } else {
+            // Deleted by an arbitrary query; drop everything and reload lazily
+            clear();
+        }
+    }
+
+    /**
+     * Add, move or drop a booking after it changed
+     */
+    public synchronized void index(Booking booking) {
+        if (booking == null || booking.getId() == null) {
+            return;
+        }
+        remove(booking.getId());
+
+        if (booking.getStatus() == null || !booking.getStatus().holdsTable()
+                || booking.getTimeSlot() == null || booking.getTableNumber() == null) {
+            return;
+        }
+        DaySlots day = days.get(booking.getTimeSlot().toLocalDate());
+        if (day != null) {
+            // Days not loaded yet will read this booking from Mongo when first used
+            add(day, booking);
+        }
+    }
+
+    /**
+     * Drop a booking from the index
+     */
+    public synchronized void remove(String bookingId) {
+        IndexedBooking indexed = bookings.remove(bookingId);
+        if (indexed != null) {
+            DaySlots day = days.get(indexed.date);
+            if (day != null) {
+                day.remove(indexed.tableNumber, bookingId);
+            }
+        }
+    }
+
+    /**
+     * Drop all loaded days
+     */
+    public synchronized void clear() {
+        days.clear();
+        bookings.clear();
+    }
+
+    private DaySlots getDay(LocalDate date) {
+        DaySlots day = days.get(date);
+        if (day != null) {
+            return day;
+        }
+        return loadDays(date, date).get(date);
+    }
+
+    /**
+     * Load days that are not in the index with one range query, keeping
+     * those inside the booking horizon
+     *
+     * The query runs under the lock: index() skips days that are not loaded
+     * yet, so a booking saved while the query was in flight would otherwise
+     * be missing from the day once it is kept.
+     */
+    private synchronized Map<LocalDate, DaySlots> loadDays(LocalDate from, LocalDate to) {
+        Map<LocalDate, DaySlots> loaded = new HashMap<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            loaded.put(date, new DaySlots());
+        }
+
+        List<Booking> active = bookingRepository.findActiveBookingsBetween(
+                from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+        for (Booking booking : active) {
+            DaySlots day = loaded.get(booking.getTimeSlot().toLocalDate());
+            if (day != null && booking.getTableNumber() != null) {
+                day.add(booking.getTableNumber(), booking.getId(), slotMask(booking));
+            }
+        }
+
+        keep(loaded);
+        return loaded;
+    }
+
+    private void keep(Map<LocalDate, DaySlots> loaded) {
+        LocalDate today = LocalDate.now();
+        LocalDate horizon = today.plusDays(HORIZON_DAYS);
+
+        // Days that slid out of the horizon are no longer needed
+        days.keySet().removeIf(date -> date.isBefore(today));
+        bookings.values().removeIf(indexed -> indexed.date.isBefore(today));
+
+        for (Map.Entry<LocalDate, DaySlots> entry : loaded.entrySet()) {
+            LocalDate date = entry.getKey();
+            if (date.isBefore(today) || date.isAfter(horizon)) {
+                continue;
+            }
+            DaySlots existing = days.get(date);
+            if (existing != null) {
+                // Loaded by an earlier request (and possibly updated since); that copy wins
+                entry.setValue(existing);
+                continue;
+            }
+            DaySlots day = entry.getValue();
+            days.put(date, day);
+            day.bookingIds.forEach((bookingId, tableNumber) ->
+                    bookings.put(bookingId, new IndexedBooking(date, tableNumber)));
+        }
+    }
+
+    private void add(DaySlots day, Booking booking) {
+        day.add(booking.getTableNumber(), booking.getId(), slotMask(booking));
+        bookings.put(booking.getId(), new IndexedBooking(booking.getTimeSlot().toLocalDate(), booking.getTableNumber()));
+    }
+
+    private long slotMask(Booking booking) {
+        Integer duration = booking.getDurationMinutes();
+        return slotMask(booking.getTimeSlot().toLocalTime(),
+                duration != null && duration > 0 ? duration : seatingEngine.getDefaultDurationMinutes());
+    }
+
+    private static long bit(int slot) {
+        return slot >= 0 && slot < SLOTS_PER_DAY ? 1L << slot : 0;
+    }
+
+    /**
+     * Slot masks of one day
+     *
+     * Per-booking masks are kept so a cancelled booking only frees the
+     * slots no other booking on the table still holds.
+     */
+    private static class DaySlots {
+
+        // tableNumber -> (bookingId -> mask)
+        private final Map<String, Map<String, Long>> bookingMasks = new HashMap<>();
+        // tableNumber -> OR of its booking masks; read without locking
+        private final Map<String, Long> tableMasks = new ConcurrentHashMap<>();
+        private final Map<String, String> bookingIds = new HashMap<>();
+
+        long tableMask(String tableNumber) {
+            return tableMasks.getOrDefault(tableNumber, 0L);
+        }
+
+        Map<String, Long> snapshot() {
+            return new TreeMap<>(tableMasks);
+        }
+
+        void add(String tableNumber, String bookingId, long mask) {
+            bookingMasks.computeIfAbsent(tableNumber, key -> new HashMap<>()).put(bookingId, mask);
+            bookingIds.put(bookingId, tableNumber);
+            tableMasks.merge(tableNumber, mask, (a, b) -> a | b);
+        }
+
+        void remove(String tableNumber, String bookingId) {
+            bookingIds.remove(bookingId);
+            Map<String, Long> masks = bookingMasks.get(tableNumber);
+            if (masks == null || masks.remove(bookingId) == null) {
+                return;
+            }
+            long combined = 0;
+            for (long mask : masks.values()) {
+                combined |= mask;
+            }
+            if (masks.isEmpty()) {
+                bookingMasks.remove(tableNumber);
+                tableMasks.remove(tableNumber);
+            } else {
+                tableMasks.put(tableNumber, combined);
+            }
+        }
+    }
+
+    private static class IndexedBooking {
+
+        private final LocalDate date;
+        private final String tableNumber;
+
+        IndexedBooking(LocalDate date, String tableNumber) {
+            this.date = date;
+            this.tableNumber = tableNumber;
+        }
+    }
+}
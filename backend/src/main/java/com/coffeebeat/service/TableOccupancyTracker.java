@@ -0,0 +1,364 @@
+package com.coffeebeat.service;
+
+import com.coffeebeat.model.Booking;
+import com.coffeebeat.model.Order;
+import com.coffeebeat.repository.BookingRepository;
+import com.coffeebeat.repository.OrderRepository;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Live state of every table on the floor
+ *
+ * A table is FREE, BOOKED (a booking is due or running but nobody is seated),
+ * SEATED, ORDERING (an order linked to its booking is in the kitchen) or
+ * AWAITING_PAYMENT (everything is served but not paid). The state is derived
+ * from today's bookings and the orders linked to them through
+ * Order.tableBookingId, all held in memory and kept current from booking and
+ * order save/delete events. Every change is pushed to /topic/tables; a
+ * periodic refresh moves tables in and out of booking windows as time passes.
+ * The topic is open to any WebSocket client, so the pushed state carries no
+ * guest details; those are only in the snapshot for staff.
+ */
+@Component
+public class TableOccupancyTracker extends AbstractMongoEventListener<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TableOccupancyTracker.class);
+
+    public enum TableState {
+        FREE,
+        BOOKED,
+        SEATED,
+        ORDERING,
+        AWAITING_PAYMENT
+    }
+
+    private static final Set<Order.OrderStatus> KITCHEN_STATUSES = Set.of(
+            Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED,
+            Order.OrderStatus.PREPARING, Order.OrderStatus.READY_FOR_SERVICE);
+
+    @Value("${app.tables.booked-lead-minutes:30}")
+    private int bookedLeadMinutes;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private SeatingEngine seatingEngine;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    // Guarded by "this"
+    private LocalDate loadedDay;
+    private final Map<String, Booking> bookings = new HashMap<>();
+    private final Map<String, Map<String, OrderState>> ordersByBooking = new HashMap<>();
+    private final Map<String, String> orderBookings = new HashMap<>();
+    private final Map<String, TableStatus> tables = new LinkedHashMap<>();
+
+    /**
+     * Load today's bookings, seated parties and their orders
+     *
+     * The queries run under the lock so that a booking or order saved while
+     * they are in flight is applied after the reload instead of being wiped
+     * by it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        int bookingCount;
+        int orderCount;
+        synchronized (this) {
+            LocalDate today = LocalDate.now();
+            List<Booking> loaded = new ArrayList<>(bookingRepository.findBookingsForToday(
+                    today.atStartOfDay(), today.plusDays(1).atStartOfDay()));
+            loaded.addAll(bookingRepository.findByStatus(Booking.BookingStatus.OCCUPIED));
+
+            loadedDay = today;
+            bookings.clear();
+            ordersByBooking.clear();
+            orderBookings.clear();
+            loaded.stream().filter(this::isRelevant).forEach(booking -> bookings.put(booking.getId(), booking));
+
+            List<Order> orders = orderRepository.findByTableBookingIdIn(new ArrayList<>(bookings.keySet()));
+            orders.forEach(this::putOrder);
+            bookingCount = bookings.size();
+            orderCount = orders.size();
+        }
+        recomputeAll();
+        logger.info("Table occupancy loaded: {} bookings, {} orders", bookingCount, orderCount);
+    }
+
+    /**
+     * Move tables in and out of booking windows; reload when the day changes
+     */
+    @Scheduled(fixedDelayString = "${app.tables.refresh-ms:60000}", initialDelayString = "${app.tables.refresh-ms:60000}")
+    public void refresh() {
+        if (!LocalDate.now().equals(loadedDay)) {
+            rebuild();
+        } else {
+            recomputeAll();
+        }
+    }
+
+    /**
+     * Current state of every table, in floor order, with the guest details of the current booking
+     */
+    public synchronized List<Map<String, Object>> getSnapshot() {
+        List<Map<String, Object>> snapshot = new ArrayList<>();
+        for (String tableNumber : tableNumbers()) {
+            TableStatus status = tables.get(tableNumber);
+            snapshot.add(status != null ? status.toMap(true)
+                    : new TableStatus(tableNumber, TableState.FREE, null).toMap(true));
+        }
+        return snapshot;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        Object source = event.getSource();
+        if (source instanceof Booking) {
+            onBookingSaved((Booking) source);
+        } else if (source instanceof Order) {
+            onOrderSaved((Order) source);
+        }
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Object> event) {
+        Class<?> type = event.getType();
+        if (type != Booking.class && type != Order.class) {
+            return;
+        }
+        Object id = event.getSource().get("_id");
+        if (!(id instanceof String || id instanceof ObjectId)) {
+            // Deleted by an arbitrary query; reload
+            rebuild();
+            return;
+        }
+
+        String tableNumber;
+        synchronized (this) {
+            if (type == Booking.class) {
+                Booking removed = bookings.remove(id.toString());
+                Map<String, OrderState> orders = ordersByBooking.remove(id.toString());
+                if (orders != null) {
+                    orders.keySet().forEach(orderBookings::remove);
+                }
+                tableNumber = removed != null ? removed.getTableNumber() : null;
+            } else {
+                tableNumber = tableOf(removeOrder(id.toString()));
+            }
+        }
+        recompute(tableNumber);
+    }
+
+    private void onBookingSaved(Booking booking) {
+        String previousTable;
+        synchronized (this) {
+            Booking previous = booking.getId() != null ? bookings.remove(booking.getId()) : null;
+            previousTable = previous != null ? previous.getTableNumber() : null;
+            if (isRelevant(booking)) {
+                bookings.put(booking.getId(), booking);
+            }
+        }
+        if (previousTable != null && !previousTable.equals(booking.getTableNumber())) {
+            recompute(previousTable);
+        }
+        recompute(booking.getTableNumber());
+    }
+
+    private void onOrderSaved(Order order) {
+        if (order.getId() == null) {
+            return;
+        }
+        String previousTable;
+        String tableNumber;
+        synchronized (this) {
+            previousTable = tableOf(removeOrder(order.getId()));
+            putOrder(order);
+            tableNumber = tableOf(order.getTableBookingId());
+        }
+        if (previousTable != null && !previousTable.equals(tableNumber)) {
+            recompute(previousTable);
+        }
+        recompute(tableNumber);
+    }
+
+    /**
+     * Bookings that can put a table in a non-free state today
+     */
+    private boolean isRelevant(Booking booking) {
+        if (booking.getId() == null || booking.getTableNumber() == null
+                || booking.getStatus() == null || !booking.getStatus().holdsTable()) {
+            return false;
+        }
+        return booking.getStatus() == Booking.BookingStatus.OCCUPIED
+                || (booking.getTimeSlot() != null && booking.getTimeSlot().toLocalDate().equals(loadedDay));
+    }
+
+    private void putOrder(Order order) {
+        String bookingId = order.getTableBookingId();
+        if (bookingId == null || !bookings.containsKey(bookingId)) {
+            return;
+        }
+        ordersByBooking.computeIfAbsent(bookingId, id -> new HashMap<>())
+                .put(order.getId(), new OrderState(order.getStatus(), order.getPaymentStatus()));
+        orderBookings.put(order.getId(), bookingId);
+    }
+
+    private String removeOrder(String orderId) {
+        String bookingId = orderBookings.remove(orderId);
+        if (bookingId != null) {
+            Map<String, OrderState> orders = ordersByBooking.get(bookingId);
+            if (orders != null) {
+                orders.remove(orderId);
+            }
+        }
+        return bookingId;
+    }
+
+    private String tableOf(String bookingId) {
+        Booking booking = bookingId != null ? bookings.get(bookingId) : null;
+        return booking != null ? booking.getTableNumber() : null;
+    }
+
+    private Set<String> tableNumbers() {
+        Set<String> tableNumbers = new LinkedHashSet<>(seatingEngine.getTables().keySet());
+        bookings.values().forEach(booking -> tableNumbers.add(booking.getTableNumber()));
+        return tableNumbers;
+    }
+
+    private void recomputeAll() {
+        Set<String> tableNumbers;
+        synchronized (this) {
+            tableNumbers = tableNumbers();
+        }
+        tableNumbers.forEach(this::recompute);
+    }
+
+    /**
+     * Derive one table's state and push it if it changed
+     */
+    private void recompute(String tableNumber) {
+        if (tableNumber == null) {
+            return;
+        }
+
+        Map<String, Object> changed = null;
+        synchronized (this) {
+            TableStatus status = derive(tableNumber, LocalDateTime.now());
+            TableStatus current = tables.get(tableNumber);
+            if (current == null || current.state != status.state || !Objects.equals(current.bookingId, status.bookingId)) {
+                tables.put(tableNumber, status);
+                changed = status.toMap(false);
+            }
+        }
+        if (changed != null) {
+            notificationService.notifyTableUpdate(changed);
+        }
+    }
+
+    private TableStatus derive(String tableNumber, LocalDateTime now) {
+        Booking current = null;
+        for (Booking booking : bookings.values()) {
+            if (!tableNumber.equals(booking.getTableNumber())) {
+                continue;
+            }
+            if (booking.getStatus() == Booking.BookingStatus.OCCUPIED) {
+                current = booking;
+                break;
+            }
+            if (current == null && inWindow(booking, now)) {
+                current = booking;
+            }
+        }
+        if (current == null) {
+            return new TableStatus(tableNumber, TableState.FREE, null);
+        }
+
+        TableState state = current.getStatus() == Booking.BookingStatus.OCCUPIED ? TableState.SEATED : TableState.BOOKED;
+        Map<String, OrderState> orders = ordersByBooking.getOrDefault(current.getId(), Map.of());
+        if (orders.values().stream().anyMatch(order -> KITCHEN_STATUSES.contains(order.status))) {
+            state = TableState.ORDERING;
+        } else if (orders.values().stream().anyMatch(order -> order.status == Order.OrderStatus.SERVED
+                && order.paymentStatus != Order.PaymentStatus.PAID)) {
+            state = TableState.AWAITING_PAYMENT;
+        }
+        return new TableStatus(tableNumber, state, current);
+    }
+
+    private boolean inWindow(Booking booking, LocalDateTime now) {
+        if (booking.getTimeSlot() == null) {
+            return false;
+        }
+        int duration = booking.getDurationMinutes() != null
+                ? booking.getDurationMinutes() : seatingEngine.getDefaultDurationMinutes();
+        return !now.isBefore(booking.getTimeSlot().minusMinutes(bookedLeadMinutes))
+                && now.isBefore(booking.getTimeSlot().plusMinutes(duration));
+    }
+
+    private static class OrderState {
+
+        private final Order.OrderStatus status;
+        private final Order.PaymentStatus paymentStatus;
+
+        OrderState(Order.OrderStatus status, Order.PaymentStatus paymentStatus) {
+            this.status = status;
+            this.paymentStatus = paymentStatus;
+        }
+    }
+
+    private static class TableStatus {
+
+        private final String tableNumber;
+        private final TableState state;
+        private final String bookingId;
+        private final Booking booking;
+        private final LocalDateTime since = LocalDateTime.now();
+
+        TableStatus(String tableNumber, TableState state, Booking booking) {
+            this.tableNumber = tableNumber;
+            this.state = state;
+            this.booking = booking;
+            this.bookingId = booking != null ? booking.getId() : null;
+        }
+
+        Map<String, Object> toMap(boolean withGuest) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("tableNumber", tableNumber);
+            map.put("state", state);
+            map.put("since", since);
+            if (withGuest && booking != null) {
+                map.put("bookingId", bookingId);
+                map.put("customerName", booking.getCustomerName());
+                map.put("peopleCount", booking.getPeopleCount());
+                map.put("timeSlot", booking.getTimeSlot());
+            }
+            return map;
+        }
+    }
+}
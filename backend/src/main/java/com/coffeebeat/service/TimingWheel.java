@@ -0,0 +1,133 @@
+package com.coffeebeat.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel
+ *
+ * Level 0 has {@code wheelSize} buckets of {@code tickMillis}; each higher
+ * level has buckets as wide as the whole level below. An item goes to the
+ * lowest level whose span covers its deadline and cascades down as the
+ * clock reaches its bucket, so adding and expiring are O(1) regardless of
+ * how many items are pending. Items beyond the top level wait in an
+ * overflow list that is re-examined whenever the top level turns over.
+ * Not thread-safe.
+ */
+class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] levelTicks;
+    private final List<List<Entry<T>>> buckets = new ArrayList<>();
+    private final List<Entry<T>> overflow = new ArrayList<>();
+
+    // Start of the current level-0 tick
+    private long currentTime;
+    private int size;
+
+    TimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levelTicks = new long[levels];
+        long levelTick = tickMillis;
+        for (int level = 0; level < levels; level++) {
+            levelTicks[level] = levelTick;
+            levelTick *= wheelSize;
+            for (int i = 0; i < wheelSize; i++) {
+                buckets.add(new ArrayList<>());
+            }
+        }
+        this.currentTime = startMillis - Math.floorMod(startMillis, tickMillis);
+    }
+
+    /**
+     * Schedule an item
+     *
+     * @return false if the deadline falls in the current tick (the caller should fire it now)
+     */
+    boolean add(long deadlineMillis, T item) {
+        if (!place(new Entry<>(deadlineMillis, item))) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Move the clock forward and collect every item that became due
+     */
+    List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        while (currentTime + tickMillis <= nowMillis) {
+            currentTime += tickMillis;
+
+            // Cascade higher levels whose bucket starts now, top level first
+            for (int level = levelTicks.length - 1; level >= 1; level--) {
+                if (currentTime % levelTicks[level] == 0) {
+                    cascade(bucket(level, currentTime), expired);
+                }
+            }
+            if (currentTime % (levelTicks[levelTicks.length - 1] * wheelSize) == 0) {
+                cascade(overflow, expired);
+            }
+
+            List<Entry<T>> due = bucket(0, currentTime);
+            for (Entry<T> entry : due) {
+                expired.add(entry.item);
+            }
+            size -= due.size();
+            due.clear();
+        }
+        return expired;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void cascade(List<Entry<T>> bucket, List<T> expired) {
+        if (bucket.isEmpty()) {
+            return;
+        }
+        List<Entry<T>> entries = new ArrayList<>(bucket);
+        bucket.clear();
+        for (Entry<T> entry : entries) {
+            if (!place(entry)) {
+                expired.add(entry.item);
+                size--;
+            }
+        }
+    }
+
+    private boolean place(Entry<T> entry) {
+        if (entry.deadline < currentTime + tickMillis) {
+            return false;
+        }
+        for (int level = 0; level < levelTicks.length; level++) {
+            long levelStart = currentTime - Math.floorMod(currentTime, levelTicks[level]);
+            if (entry.deadline < levelStart + levelTicks[level] * wheelSize) {
+                bucket(level, entry.deadline).add(entry);
+                return true;
+            }
+        }
+        overflow.add(entry);
+        return true;
+    }
+
+    private List<Entry<T>> bucket(int level, long time) {
+        int index = (int) Math.floorMod(Math.floorDiv(time, levelTicks[level]), (long) wheelSize);
+        return buckets.get(level * wheelSize + index);
+    }
+
+    private static class Entry<T> {
+
+        private final long deadline;
+        private final T item;
+
+        Entry(long deadline, T item) {
+            this.deadline = deadline;
+            this.item = item;
+        }
+    }
+}
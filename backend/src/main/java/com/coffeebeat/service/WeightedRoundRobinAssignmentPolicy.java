@@ -0,0 +1,51 @@
+package com.coffeebeat.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Smooth weighted round-robin, weighted by free capacity
+ *
+ * Each staff member's weight is how many more orders they can take. Every
+ * pick adds each weight to that person's running score, takes the highest
+ * score and subtracts the total weight from it, which spreads orders in
+ * proportion to the weights without sending several in a row to the same
+ * person.
+ */
+@Component
+public class WeightedRoundRobinAssignmentPolicy implements AssignmentPolicy {
+
+    // Running scores per pool and staff id; guarded by "this"
+    private final Map<String, Map<String, Integer>> scores = new HashMap<>();
+
+    @Override
+    public String getName() {
+        return "weighted-round-robin";
+    }
+
+    @Override
+    public synchronized String choose(String pool, Map<String, Integer> queueLengths, int capacity) {
+        Map<String, Integer> poolScores = scores.computeIfAbsent(pool, key -> new HashMap<>());
+        poolScores.keySet().retainAll(queueLengths.keySet());
+
+        String chosen = null;
+        int totalWeight = 0;
+        for (Map.Entry<String, Integer> entry : queueLengths.entrySet()) {
+            int weight = capacity - entry.getValue();
+            if (weight <= 0) {
+                continue;
+            }
+            totalWeight += weight;
+            int score = poolScores.merge(entry.getKey(), weight, Integer::sum);
+            if (chosen == null || score > poolScores.get(chosen)) {
+                chosen = entry.getKey();
+            }
+        }
+        if (chosen != null) {
+            poolScores.merge(chosen, -totalWeight, Integer::sum);
+        }
+        return chosen;
+    }
+}
@@ -0,0 +1,160 @@
+package com.coffeebeat.config;
+
+import com.coffeebeat.model.Booking;
+import com.coffeebeat.repository.BookingRepository;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every BookingRepository query is answered from an index
+ *
+ * Each declared repository method is called once with sample arguments while
+ * the database profiler records what it sends; the recorded filters are then
+ * explained. A new repository query without a fitting index fails here.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class BookingIndexInitializerTest {
+
+    private static final String SAMPLE_ID = new ObjectId().toHexString();
+
+    @Container
+    static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+        registry.add("spring.data.mongodb.database", () -> "coffee-beat-test");
+        // Keep background booking queries out of the profile
+        registry.add("app.reminders.enabled", () -> "false");
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingIndexInitializer bookingIndexInitializer;
+
+    @Test
+    void everyRepositoryQueryUsesAnIndex() throws Exception {
+        assertTrue(bookingIndexInitializer.isSlotUniquenessEnforced());
+
+        Map<String, Document> filters = captureRepositoryFilters();
+        assertEquals(BookingRepository.class.getDeclaredMethods().length, filters.size());
+
+        filters.forEach((name, filter) -> {
+            List<String> stages = new ArrayList<>();
+            List<String> indexes = new ArrayList<>();
+            collectStages(winningPlan(filter), stages, indexes);
+            assertFalse(stages.contains("COLLSCAN"), name + " scans the collection: " + filter + " " + stages);
+            assertFalse(indexes.isEmpty(), name + " uses no index: " + filter + " " + stages);
+        });
+    }
+
+    /**
+     * Filter each declared repository method sends, by method name
+     */
+    private Map<String, Document> captureRepositoryFilters() throws Exception {
+        MongoDatabase database = mongoTemplate.getDb();
+        MongoCollection<Document> profile = database.getCollection("system.profile");
+        Document onBookings = new Document("ns", database.getName() + ".bookings");
+
+        Map<String, Document> filters = new TreeMap<>();
+        database.runCommand(new Document("profile", 2));
+        try {
+            for (Method method : BookingRepository.class.getDeclaredMethods()) {
+                long before = profile.countDocuments(onBookings);
+                method.invoke(bookingRepository, sampleArguments(method));
+                List<Document> sent = profile.find(onBookings).skip((int) before).into(new ArrayList<>());
+                assertEquals(1, sent.size(), method.getName() + " sent " + sent);
+                filters.put(method.getName(), filterOf(sent.get(0).get("command", Document.class)));
+            }
+        } finally {
+            database.runCommand(new Document("profile", 0));
+        }
+        return filters;
+    }
+
+    private static Object[] sampleArguments(Method method) {
+        LocalDateTime day = LocalDate.now().plusDays(1).atStartOfDay();
+        Class<?>[] types = method.getParameterTypes();
+        Object[] arguments = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] == String.class) {
+                arguments[i] = SAMPLE_ID;
+            } else if (types[i] == LocalDateTime.class) {
+                // Later parameters close the ranges opened by earlier ones
+                arguments[i] = day.plusHours(i);
+            } else if (types[i] == Booking.BookingStatus.class) {
+                arguments[i] = Booking.BookingStatus.BOOKED;
+            } else if (types[i] == Booking.TimeSlot.class) {
+                arguments[i] = Booking.TimeSlot.MORNING;
+            } else {
+                throw new IllegalStateException("No sample value for " + types[i] + " in " + method);
+            }
+        }
+        return arguments;
+    }
+
+    /**
+     * Filter of a profiled find, count or countDocuments aggregation
+     */
+    private static Document filterOf(Document command) {
+        if (command.containsKey("filter")) {
+            return command.get("filter", Document.class);
+        }
+        if (command.containsKey("query")) {
+            return command.get("query", Document.class);
+        }
+        return command.getList("pipeline", Document.class).get(0).get("$match", Document.class);
+    }
+
+    private Document winningPlan(Document filter) {
+        Document explain = mongoTemplate.getCollection("bookings").find(filter).explain();
+        return explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+    }
+
+    /**
+     * Stage names and index names anywhere in a plan (classic or slot-based engine layout)
+     */
+    private static void collectStages(Object node, List<String> stages, List<String> indexes) {
+        if (node instanceof Document) {
+            Document document = (Document) node;
+            if (document.get("stage") instanceof String) {
+                stages.add(document.getString("stage"));
+            }
+            if (document.get("indexName") instanceof String) {
+                indexes.add(document.getString("indexName"));
+            }
+            document.values().forEach(value -> collectStages(value, stages, indexes));
+        } else if (node instanceof List) {
+            ((List<?>) node).forEach(value -> collectStages(value, stages, indexes));
+        }
+    }
+}
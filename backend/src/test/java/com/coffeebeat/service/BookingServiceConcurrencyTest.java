@@ -0,0 +1,136 @@
+package com.coffeebeat.service;
+
+import com.coffeebeat.model.Booking;
+import com.coffeebeat.model.User;
+import com.coffeebeat.repository.BookingRepository;
+import com.coffeebeat.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Parallel bookings of one table and slot: exactly one may be created
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class BookingServiceConcurrencyTest {
+
+    private static final int PARALLEL_REQUESTS = 8;
+
+    @Container
+    static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+        registry.add("spring.data.mongodb.database", () -> "coffee-beat-test");
+    }
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void parallelCustomerBookingsOfOneSlotCreateExactlyOne() throws Exception {
+        User user = new User("Race Tester", "race-" + UUID.randomUUID() + "@coffee.test", "hash", "ROLE_CUSTOMER");
+        userRepository.save(user);
+        LocalDateTime time = LocalDate.now().plusDays(1).atTime(10, 0);
+
+        List<Object> outcomes = race(() -> bookingService.createBooking(newBooking("RACE-1", time), user.getEmail()));
+
+        assertExactlyOneCreated(outcomes, "RACE-1", time);
+    }
+
+    @Test
+    void parallelAdminBookingsOfOneSlotCreateExactlyOne() throws Exception {
+        LocalDateTime time = LocalDate.now().plusDays(1).atTime(14, 0);
+
+        List<Object> outcomes = race(() -> bookingService.createBookingForAdmin(newBooking("RACE-2", time)));
+
+        assertExactlyOneCreated(outcomes, "RACE-2", time);
+    }
+
+    private void assertExactlyOneCreated(List<Object> outcomes, String tableNumber, LocalDateTime time) {
+        int created = 0;
+        for (Object outcome : outcomes) {
+            if (outcome instanceof Booking) {
+                created++;
+            } else {
+                assertInstanceOf(IllegalArgumentException.class, outcome);
+                assertTrue(((Throwable) outcome).getMessage().contains("already booked"),
+                        "unexpected failure: " + outcome);
+            }
+        }
+        assertEquals(1, created);
+
+        long active = bookingRepository.findByTableNumberAndTimeSlotBetween(tableNumber, time, time).size();
+        assertEquals(1, active);
+    }
+
+    /**
+     * Run the same create from several threads at once; each outcome is the booking or the exception
+     */
+    private static List<Object> race(Callable<Booking> create) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(PARALLEL_REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Booking>> futures = new ArrayList<>();
+            for (int i = 0; i < PARALLEL_REQUESTS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return create.call();
+                }));
+            }
+            start.countDown();
+
+            List<Object> outcomes = new ArrayList<>();
+            for (Future<Booking> future : futures) {
+                try {
+                    outcomes.add(future.get(30, TimeUnit.SECONDS));
+                } catch (ExecutionException e) {
+                    outcomes.add(e.getCause());
+                } catch (Exception e) {
+                    outcomes.add(e);
+                }
+            }
+            return outcomes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Booking newBooking(String tableNumber, LocalDateTime time) {
+        Booking booking = new Booking();
+        booking.setTableNumber(tableNumber);
+        booking.setPeopleCount(2);
+        booking.setTimeSlot(time);
+        return booking;
+    }
+}
@@ -0,0 +1,108 @@
+package com.coffeebeat.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs one call a fixed number of times from a pool of threads released
+ * together, recording the latency and failure of every call
+ */
+final class LoadRun {
+
+    private final long[] latencyNanos;
+    private final List<Throwable> failures;
+    private final long elapsedNanos;
+
+    private LoadRun(long[] latencyNanos, List<Throwable> failures, long elapsedNanos) {
+        this.latencyNanos = latencyNanos;
+        this.failures = failures;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Make {@code calls} calls from {@code threads} threads; the call index is passed to each call
+     */
+    static LoadRun run(int threads, int calls, IndexedCall call) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicInteger next = new AtomicInteger();
+        long[] latencies = new long[calls];
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        try {
+            for (int t = 0; t < threads; t++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        for (int i = next.getAndIncrement(); i < calls; i = next.getAndIncrement()) {
+                            long begin = System.nanoTime();
+                            try {
+                                call.call(i);
+                            } catch (Exception e) {
+                                failures.add(e);
+                            }
+                            latencies[i] = System.nanoTime() - begin;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            if (!done.await(5, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("Load run did not finish within 5 minutes");
+            }
+            return new LoadRun(latencies, failures, System.nanoTime() - begin);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Make {@code calls} calls of the same callable from {@code threads} threads
+     */
+    static LoadRun run(int threads, int calls, Callable<?> call) throws InterruptedException {
+        return run(threads, calls, index -> call.call());
+    }
+
+    List<Throwable> failures() {
+        return failures;
+    }
+
+    double throughputPerSecond() {
+        return latencyNanos.length / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Latency at a percentile (0-100) in milliseconds, nearest-rank
+     */
+    double percentileMillis(double percentile) {
+        long[] sorted = latencyNanos.clone();
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank - 1, 0)] / 1e6;
+    }
+
+    String summary(String label) {
+        return String.format("%s: %d calls, %d failed, %.0f calls/s, p50 %.1f ms, p99 %.1f ms",
+                label, latencyNanos.length, failures.size(), throughputPerSecond(),
+                percentileMillis(50), percentileMillis(99));
+    }
+
+    @FunctionalInterface
+    interface IndexedCall {
+
+        void call(int index) throws Exception;
+    }
+}
@@ -0,0 +1,102 @@
+package com.coffeebeat.service;
+
+import com.coffeebeat.model.Product;
+import com.coffeebeat.repository.ProductRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * Many writers doing read-modify-write on one document: versioned saves
+ * retried by OptimisticRetry against plain last-writer-wins saves
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class OptimisticRetryContentionTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetryContentionTest.class);
+
+    private static final int WRITERS = 50;
+    private static final int INITIAL_STOCK = 1000;
+
+    @Container
+    static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+        registry.add("spring.data.mongodb.database", () -> "coffee-beat-test");
+        registry.add("app.reminders.enabled", () -> "false");
+    }
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void versionedUpdatesWithRetryLoseNothing() throws Exception {
+        String operation = "contention." + UUID.randomUUID();
+        Product product = productRepository.save(
+                new Product("Contended", "contended-" + UUID.randomUUID(), 3.0, INITIAL_STOCK, "bench"));
+
+        LoadRun run = LoadRun.run(WRITERS, WRITERS, () -> optimisticRetry.execute(operation, () -> {
+            Product current = productRepository.findById(product.getId()).orElseThrow();
+            current.setStock(current.getStock() + 1);
+            return productRepository.save(current);
+        }));
+
+        Map<?, ?> stats = (Map<?, ?>) optimisticRetry.getStats().get(operation);
+        long conflicts = (Long) stats.get("conflicts");
+        long exhausted = (Long) stats.get("exhausted");
+        logger.info("{}; conflicts {}, retries {}, exhausted {}", run.summary("versioned + retry"),
+                conflicts, conflicts - exhausted, exhausted);
+
+        // A writer either landed its increment or was told it failed; none vanished silently
+        for (Throwable failure : run.failures()) {
+            assertInstanceOf(OptimisticLockingFailureException.class, failure);
+        }
+        int applied = WRITERS - run.failures().size();
+        assertEquals(exhausted, run.failures().size());
+        assertEquals(INITIAL_STOCK + applied, productRepository.findById(product.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void unversionedSavesAreLastWriterWins() throws Exception {
+        String id = UUID.randomUUID().toString();
+        String collection = "contention_baseline";
+        mongoTemplate.save(new Document("_id", id).append("stock", INITIAL_STOCK), collection);
+
+        LoadRun run = LoadRun.run(WRITERS, WRITERS, () -> {
+            Document current = mongoTemplate.findById(id, Document.class, collection);
+            current.put("stock", current.getInteger("stock") + 1);
+            return mongoTemplate.save(current, collection);
+        });
+
+        int applied = mongoTemplate.findById(id, Document.class, collection).getInteger("stock") - INITIAL_STOCK;
+        logger.info("{}; increments applied {}, lost {}", run.summary("plain save"), applied, WRITERS - applied);
+
+        // Every save "succeeds", yet any increment written over a stale read is gone
+        assertEquals(0, run.failures().size());
+    }
+}
@@ -0,0 +1,68 @@
+package com.coffeebeat.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OptimisticRetryTest {
+
+    private OptimisticRetry optimisticRetry;
+
+    @BeforeEach
+    void setUp() {
+        optimisticRetry = new OptimisticRetry();
+        ReflectionTestUtils.setField(optimisticRetry, "maxAttempts", 3);
+        ReflectionTestUtils.setField(optimisticRetry, "baseDelayMillis", 1L);
+        ReflectionTestUtils.setField(optimisticRetry, "maxDelayMillis", 2L);
+    }
+
+    @Test
+    void rerunsTheOperationUntilItStopsConflicting() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = optimisticRetry.execute("op", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("stale version");
+            }
+            return "saved";
+        });
+
+        assertEquals("saved", result);
+        assertEquals(3, attempts.get());
+        assertEquals(Map.of("calls", 1L, "conflicts", 2L, "exhausted", 0L, "conflictRate", 2.0),
+                optimisticRetry.getStats().get("op"));
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> optimisticRetry.run("op", () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale version");
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(1L, ((Map<?, ?>) optimisticRetry.getStats().get("op")).get("exhausted"));
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalArgumentException.class, () -> optimisticRetry.run("op", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("Booking not found");
+        }));
+
+        assertEquals(1, attempts.get());
+        assertEquals(0L, ((Map<?, ?>) optimisticRetry.getStats().get("op")).get("conflicts"));
+    }
+}
@@ -0,0 +1,174 @@
+package com.coffeebeat.service;
+
+import com.coffeebeat.dto.CreateOrderRequest;
+import com.coffeebeat.model.Order;
+import com.coffeebeat.model.Product;
+import com.coffeebeat.model.User;
+import com.coffeebeat.repository.ProductRepository;
+import com.coffeebeat.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Order placement in both placement modes against a single-node replica set:
+ * throughput and p99 of concurrent placements, and stock left untouched when
+ * the order insert fails
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class OrderPlacementBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderPlacementBenchmarkTest.class);
+
+    private static final int THREADS = 16;
+    private static final int CALLS = 400;
+    private static final int WARM_UP_CALLS = 50;
+
+    @Container
+    static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+        registry.add("spring.data.mongodb.database", () -> "coffee-beat-test");
+        registry.add("app.reminders.enabled", () -> "false");
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = userRepository.save(new User("Bench Tester", "bench-" + UUID.randomUUID() + "@coffee.test",
+                "hash", "ROLE_CUSTOMER"));
+    }
+
+    @AfterEach
+    void restoreDefaultMode() {
+        usePlacementMode("conditional");
+    }
+
+    @Test
+    void conditionalPlacementUnderConcurrency() throws Exception {
+        benchmark("conditional");
+    }
+
+    @Test
+    void transactionalPlacementUnderConcurrency() throws Exception {
+        benchmark("transactional");
+    }
+
+    @Test
+    void transactionalPlacementWhoseInsertFailsLeavesStockUnchanged() {
+        usePlacementMode("transactional");
+        Product espresso = newProduct("espresso", 100);
+        Product croissant = newProduct("croissant", 100);
+        CreateOrderRequest request = orderOf(espresso, croissant);
+
+        Order placed = orderService.createOrderFromDto(request, user.getEmail(), UUID.randomUUID().toString());
+        long failedBefore = placementCounter("transactionsFailed");
+
+        assertThrows(DuplicateKeyException.class,
+                () -> orderService.createOrderFromDto(request, user.getEmail(), placed.getId()));
+
+        // Only the first placement took stock; the failed one's decrements were rolled back
+        assertEquals(99, stockOf(espresso));
+        assertEquals(99, stockOf(croissant));
+        assertEquals(failedBefore + 1, placementCounter("transactionsFailed"));
+    }
+
+    @Test
+    void conditionalPlacementWhoseInsertFailsGivesStockBack() {
+        Product espresso = newProduct("espresso", 100);
+        Product croissant = newProduct("croissant", 100);
+        CreateOrderRequest request = orderOf(espresso, croissant);
+
+        Order placed = orderService.createOrderFromDto(request, user.getEmail(), UUID.randomUUID().toString());
+
+        assertThrows(DuplicateKeyException.class,
+                () -> orderService.createOrderFromDto(request, user.getEmail(), placed.getId()));
+
+        assertEquals(99, stockOf(espresso));
+        assertEquals(99, stockOf(croissant));
+    }
+
+    /**
+     * Place CALLS two-item orders from THREADS threads and report throughput and latency
+     */
+    private void benchmark(String mode) throws Exception {
+        usePlacementMode(mode);
+        int stock = WARM_UP_CALLS + CALLS;
+        Product espresso = newProduct("espresso", stock);
+        Product croissant = newProduct("croissant", stock);
+        CreateOrderRequest request = orderOf(espresso, croissant);
+
+        LoadRun.run(THREADS, WARM_UP_CALLS, () -> orderService.createOrderFromDto(request, user.getEmail()));
+        LoadRun run = LoadRun.run(THREADS, CALLS, () -> orderService.createOrderFromDto(request, user.getEmail()));
+
+        logger.info("{} [{}]", run.summary(mode + " placement"), orderService.getPlacementStats());
+        assertTrue(run.failures().isEmpty(), "placements failed: " + run.failures());
+        assertEquals(0, stockOf(espresso));
+        assertEquals(0, stockOf(croissant));
+    }
+
+    private void usePlacementMode(String mode) {
+        ReflectionTestUtils.setField(orderService, "placementMode", mode);
+        assertEquals(mode, orderService.getPlacementStats().get("mode"));
+    }
+
+    private long placementCounter(String name) {
+        Map<String, Object> stats = orderService.getPlacementStats();
+        return (Long) stats.get(name);
+    }
+
+    private Product newProduct(String name, int stock) {
+        String slug = name + "-" + UUID.randomUUID();
+        return productRepository.save(new Product(name, slug, 2.5, stock, "bench"));
+    }
+
+    private int stockOf(Product product) {
+        Product current = productRepository.findById(product.getId()).orElse(null);
+        assertNotNull(current);
+        return current.getStock();
+    }
+
+    private static CreateOrderRequest orderOf(Product... products) {
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setItems(Arrays.stream(products).map(product -> {
+            CreateOrderRequest.OrderItemRequest item = new CreateOrderRequest.OrderItemRequest();
+            item.setProductId(product.getId());
+            item.setQuantity(1);
+            return item;
+        }).toList());
+        return request;
+    }
+}
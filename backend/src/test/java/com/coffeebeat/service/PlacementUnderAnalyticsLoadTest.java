@@ -0,0 +1,195 @@
+package com.coffeebeat.service;
+
+import com.coffeebeat.dto.CreateOrderRequest;
+import com.coffeebeat.model.Order;
+import com.coffeebeat.model.Product;
+import com.coffeebeat.model.User;
+import com.coffeebeat.repository.OrderRepository;
+import com.coffeebeat.repository.ProductRepository;
+import com.coffeebeat.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Order placement latency on its own and while the analytics and stats
+ * reports are kept saturated, the reports going through AnalyticsBulkhead
+ * exactly as the admin and order stats endpoints submit them
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class PlacementUnderAnalyticsLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlacementUnderAnalyticsLoadTest.class);
+
+    private static final int PLACEMENT_THREADS = 16;
+    private static final int PLACEMENT_CALLS = 300;
+    private static final int REPORT_CLIENTS = 16;
+    private static final int SEEDED_ORDERS = 5000;
+
+    @Container
+    static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+        registry.add("spring.data.mongodb.database", () -> "coffee-beat-test");
+        registry.add("app.reminders.enabled", () -> "false");
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private AnalyticsBulkhead analyticsBulkhead;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void placementP99WithAndWithoutSaturatedAnalytics() throws Exception {
+        User user = userRepository.save(new User("Load Tester", "load-" + UUID.randomUUID() + "@coffee.test",
+                "hash", "ROLE_CUSTOMER"));
+        Product product = productRepository.save(new Product("Latte", "latte-" + UUID.randomUUID(), 4.0,
+                3 * PLACEMENT_CALLS, "bench"));
+        seedOrders(user, product);
+        CreateOrderRequest request = orderOf(product);
+
+        LoadRun.run(PLACEMENT_THREADS, PLACEMENT_CALLS / 4,
+                () -> orderService.createOrderFromDto(request, user.getEmail()));
+        LoadRun baseline = LoadRun.run(PLACEMENT_THREADS, PLACEMENT_CALLS,
+                () -> orderService.createOrderFromDto(request, user.getEmail()));
+
+        long rejectedBefore = (Long) analyticsBulkhead.getStats().get("rejected");
+        ReportLoad reports = new ReportLoad();
+        reports.start();
+        LoadRun mixed;
+        try {
+            mixed = LoadRun.run(PLACEMENT_THREADS, PLACEMENT_CALLS,
+                    () -> orderService.createOrderFromDto(request, user.getEmail()));
+        } finally {
+            reports.stop();
+        }
+
+        logger.info(baseline.summary("placement alone"));
+        logger.info(mixed.summary("placement with saturated analytics"));
+        logger.info("reports: {} served, {} refused with 503; bulkhead {}", reports.served.get(),
+                reports.refused.get(), analyticsBulkhead.getStats());
+        logger.info("placement p99 {} ms alone, {} ms under analytics load",
+                baseline.percentileMillis(99), mixed.percentileMillis(99));
+
+        assertTrue(baseline.failures().isEmpty(), "placements failed: " + baseline.failures());
+        assertTrue(mixed.failures().isEmpty(), "placements failed: " + mixed.failures());
+        // The reports really did saturate the bulkhead during the mixed run
+        assertTrue(reports.served.get() > 0);
+        assertTrue((Long) analyticsBulkhead.getStats().get("rejected") > rejectedBefore);
+        assertEquals(3 * PLACEMENT_CALLS - PLACEMENT_CALLS / 4 - 2 * PLACEMENT_CALLS,
+                productRepository.findById(product.getId()).orElseThrow().getStock());
+    }
+
+    /**
+     * Give the reports a realistic amount of orders to count and aggregate
+     */
+    private void seedOrders(User user, Product product) {
+        Order.OrderStatus[] statuses = Order.OrderStatus.values();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < SEEDED_ORDERS; i++) {
+            Order.OrderItem item = new Order.OrderItem();
+            item.setProductId(product.getId());
+            item.setProductName(product.getName());
+            item.setPrice(product.getPrice());
+            item.setQuantity(1 + i % 3);
+
+            Order order = new Order();
+            order.setUserId(user.getId());
+            order.setItems(List.of(item));
+            order.setTotalPrice(product.getPrice() * item.getQuantity());
+            order.setStatus(statuses[i % statuses.length]);
+            order.setPaymentStatus(i % 2 == 0 ? Order.PaymentStatus.PAID : Order.PaymentStatus.PENDING);
+            order.setCreatedAt(LocalDateTime.now().minusMinutes(i));
+            orders.add(order);
+        }
+        orderRepository.saveAll(orders);
+    }
+
+    private static CreateOrderRequest orderOf(Product product) {
+        CreateOrderRequest.OrderItemRequest item = new CreateOrderRequest.OrderItemRequest();
+        item.setProductId(product.getId());
+        item.setQuantity(1);
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setItems(List.of(item));
+        return request;
+    }
+
+    /**
+     * Clients that keep asking for the system and order stats reports, more
+     * of them than the bulkhead has threads and queue slots
+     */
+    private class ReportLoad {
+
+        private final ExecutorService clients = Executors.newFixedThreadPool(REPORT_CLIENTS);
+        private final AtomicBoolean running = new AtomicBoolean(true);
+        private final AtomicLong served = new AtomicLong();
+        private final AtomicLong refused = new AtomicLong();
+
+        void start() {
+            for (int i = 0; i < REPORT_CLIENTS; i++) {
+                boolean systemStats = i % 2 == 0;
+                clients.execute(() -> {
+                    while (running.get()) {
+                        CompletableFuture<ResponseEntity<Object>> report = analyticsBulkhead.submit(() ->
+                                ResponseEntity.ok(systemStats ? adminService.getSystemStats() : orderService.getOrderStats()));
+                        if (report.join().getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE) {
+                            refused.incrementAndGet();
+                            // Back off briefly rather than spin, the bulkhead is still full
+                            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+                        } else {
+                            served.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+
+        void stop() throws InterruptedException {
+            running.set(false);
+            clients.shutdown();
+            if (!clients.awaitTermination(1, TimeUnit.MINUTES)) {
+                clients.shutdownNow();
+            }
+        }
+    }
+}